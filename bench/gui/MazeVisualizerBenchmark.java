@@ -0,0 +1,80 @@
+package gui;
+
+import maze.Maze;
+import maze.MazeFactory;
+import maze.MazePathFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Painting of a generated maze with the found path into an offscreen image.
+ * paintMaze renders the whole maze again on every paint, paintCached copies
+ * the maze image rendered by an earlier paint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MazeVisualizerBenchmark {
+    private static final long SEED = 42;
+
+    @State(Scope.Benchmark)
+    public static class Painting {
+        MazeVisualizer mazeVisualizer;
+        BufferedImage image;
+        Graphics2D graphics;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            mazeVisualizer = new MazeVisualizer();
+            Maze maze = MazeFactory.getMaze(SEED);
+            mazeVisualizer.showMaze(maze);
+            mazeVisualizer.showPath(MazePathFactory.getMazePath(maze, maze.getFirstEmptyPoint().x,
+                    maze.getFirstEmptyPoint().y, maze.getLastEmptyPoint().x, maze.getLastEmptyPoint().y));
+
+            image = new BufferedImage(700, 700, BufferedImage.TYPE_INT_RGB);
+            mazeVisualizer.setSize(image.getWidth(), image.getHeight());
+            graphics = image.createGraphics();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            graphics.dispose();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class UncachedPainting extends Painting {
+        @Setup(Level.Invocation)
+        public void dropMazeImage() {
+            mazeVisualizer.invalidateMazeImage();
+        }
+    }
+
+    @Benchmark
+    public BufferedImage paintMaze(UncachedPainting painting) {
+        painting.mazeVisualizer.paint(painting.graphics);
+        return painting.image;
+    }
+
+    @Benchmark
+    public BufferedImage paintCached(Painting painting) {
+        painting.mazeVisualizer.paint(painting.graphics);
+        return painting.image;
+    }
+}
@@ -0,0 +1,54 @@
+package maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation and validation of {@link EllerMaze}. The validated maze is perfect,
+ * so the whole flood fill is timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EllerMazeBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"28", "200", "1000"})
+    public int size;
+
+    @Param({"20", "40", "70"})
+    public int wallPercentage;
+
+    private EllerMaze maze;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maze = new EllerMaze(size, size, wallPercentage, new Random(SEED));
+    }
+
+    @Benchmark
+    public Maze construct() {
+        return new EllerMaze(size, size, wallPercentage, new Random(SEED));
+    }
+
+    @Benchmark
+    public boolean isCorrect() {
+        return maze.isCorrect();
+    }
+}
@@ -0,0 +1,69 @@
+package maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cycle removal of an {@link EllerMaze} with extra passages opened. The removal
+ * changes the maze, so every call of deleteAllCycles first copies the cyclic
+ * bitmap back. The copy alone is timed by restoreCycles, subtract it to get the
+ * cost of the removal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MazeCycleBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"28", "200", "1000"})
+    public int size;
+
+    @Param({"20", "40", "70"})
+    public int wallPercentage;
+
+    private EllerMaze maze;
+    private long[] cyclicWalls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maze = new EllerMaze(size, size, wallPercentage, new Random(SEED));
+
+        //open every tenth wall between areas in a row to give deleteAllCycles some work
+        Random rand = new Random(size);
+        for (int i = 0; i < maze.getHeight(); i += 2) {
+            for (int j = 1; j < maze.getWidth(); j += 2) {
+                if (rand.nextInt(10) == 0)
+                    maze.setBlockAt(i, j, MazeBlock.EMPTY);
+            }
+        }
+        cyclicWalls = maze.walls.clone();
+    }
+
+    @Benchmark
+    public Maze restoreCycles() {
+        System.arraycopy(cyclicWalls, 0, maze.walls, 0, cyclicWalls.length);
+        return maze;
+    }
+
+    @Benchmark
+    public int deleteAllCycles() {
+        System.arraycopy(cyclicWalls, 0, maze.walls, 0, cyclicWalls.length);
+        return maze.deleteAllCycles();
+    }
+}
@@ -0,0 +1,71 @@
+package maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path solves between near and far endpoints for every {@link MazePath} implementation.
+ * Far endpoints are the first and the last empty cells, near ones are the first empty
+ * cell and the cell ten steps along the path between them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MazePathBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"28", "200"})
+    public int size;
+
+    @Param({"maze.WaveMazePath", "maze.BreadthFirstMazePath", "maze.AStarMazePath", "maze.BidirectionalMazePath"})
+    public String implementation;
+
+    @Param({"near", "far"})
+    public String distance;
+
+    private Maze maze;
+    private Constructor<?> constructor;
+    private int startX;
+    private int startY;
+    private int finishX;
+    private int finishY;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        maze = new EllerMaze(size, size, 40, new Random(SEED));
+        constructor = Class.forName(implementation)
+                .getConstructor(Maze.class, int.class, int.class, int.class, int.class);
+
+        Point first = maze.getFirstEmptyPoint();
+        Point last = maze.getLastEmptyPoint();
+        startX = first.x;
+        startY = first.y;
+
+        CompactPath farPath = new BreadthFirstMazePath(maze, first.x, first.y, last.x, last.y).getPath();
+        int finishPosition = distance.equals("near") ? Math.min(10, farPath.size() - 1) : farPath.size() - 1;
+        finishX = farPath.getX(finishPosition);
+        finishY = farPath.getY(finishPosition);
+    }
+
+    @Benchmark
+    public Object solve() throws Exception {
+        return constructor.newInstance(maze, startX, startY, finishX, finishY);
+    }
+}
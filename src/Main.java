@@ -1,10 +1,18 @@
+import batch.BatchRunner;
 import gui.MainForm;
 import maze.Maze;
 import maze.MazeFactory;
+import metrics.MazeMetrics;
 import settings.Settings;
 
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0) {
+            BatchRunner.main(args);
+            return;
+        }
+
+        MazeMetrics.registerMBean();
 
         new MainForm();
     }
@@ -0,0 +1,280 @@
+package batch;
+
+import maze.EmptyCellIndex;
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.MazeGenerators;
+import maze.MazePath;
+import maze.MazePathFactory;
+import maze.Point;
+import metrics.MazeMetrics;
+import settings.Settings;
+
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless mode that generates and solves mazes in a loop and prints the timing
+ * of every run followed by the throughput and memory high-water marks. Only the
+ * maze packages are touched, so neither AWT nor the images are loaded.
+ * <p>
+ * Arguments are --name=value pairs: size, seed, count, generator, solver,
+ * wall, threads, endpoints (ends or random) and format (csv or json). Run i
+ * uses the seed + i and is executed by one of the threads. It solves from the
+ * first to the last empty cell, or between two empty cells picked uniformly at
+ * random with the run seed.
+ * <p>
+ * The size is given like the rows in the settings, so a maze has size / 2 * 2 - 1
+ * cells along each side: both 100 and 101 give 99 x 99 cells. The solve time
+ * covers the search only, the solver class is looked up once before the runs.
+ * The peak heap is the sum of the peaks of the heap pools, which may have been
+ * reached at different times, so it is an upper bound of the real peak.
+ */
+public class BatchRunner {
+    private static final String USAGE = "Usage: --size=N --seed=N --count=N --generator=NAME --solver=CLASS"
+            + " --wall=PERCENT --threads=N --endpoints=ends|random --format=csv|json";
+
+    private int size = Settings.getMazeRows();
+    private long seed = 0;
+    private int count = 1;
+    private String generatorName = Settings.getMazeGeneratorName();
+    private String solverClassName = Settings.getMazePathImplementationClassName();
+    private int wallPercentage = Settings.getWallPercentage();
+    private int threads = 1;
+    private boolean isRandomEndpoints = false;
+    private boolean isJson = false;
+    private MazeGenerator generator;
+    private Constructor<? extends MazePath> solver;
+
+    private BatchRunner(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0)
+                throw new IllegalArgumentException("Bad argument: " + arg);
+
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            if (name.equals("size"))
+                size = parsePositive(name, value);
+            else if (name.equals("seed"))
+                seed = Long.parseLong(value);
+            else if (name.equals("count"))
+                count = parsePositive(name, value);
+            else if (name.equals("generator"))
+                generatorName = value;
+            else if (name.equals("solver"))
+                solverClassName = value.indexOf('.') < 0 ? "maze." + value : value;
+            else if (name.equals("wall"))
+                wallPercentage = Integer.parseInt(value);
+            else if (name.equals("threads"))
+                threads = parsePositive(name, value);
+            else if (name.equals("endpoints")) {
+                if (!value.equals("ends") && !value.equals("random"))
+                    throw new IllegalArgumentException("Endpoints must be ends or random: " + value);
+                isRandomEndpoints = value.equals("random");
+            } else if (name.equals("format")) {
+                if (!value.equals("csv") && !value.equals("json"))
+                    throw new IllegalArgumentException("Format must be csv or json: " + value);
+                isJson = value.equals("json");
+            } else
+                throw new IllegalArgumentException("Unknown argument: " + name);
+        }
+
+        generator = MazeGenerators.get(generatorName);
+        solver = MazePathFactory.getConstructor(solverClassName);
+    }
+
+    public static void main(String[] args) {
+        BatchRunner runner = null;
+        try {
+            runner = new BatchRunner(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(-1);
+        }
+
+        runner.run(System.out);
+    }
+
+    private static int parsePositive(String name, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0)
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+
+        return parsed;
+    }
+
+    private void run(PrintStream out) {
+        final Map<String, String> options = Collections.singletonMap(MazeGenerator.WALL_PERCENTAGE_OPTION,
+                String.valueOf(wallPercentage));
+
+        List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        MazeMetrics.reset();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<RunResult>> futures = new ArrayList<Future<RunResult>>(count);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            final int run = i;
+            futures.add(executor.submit(new Callable<RunResult>() {
+                @Override
+                public RunResult call() {
+                    return execute(options, run);
+                }
+            }));
+        }
+
+        RunResult[] results = new RunResult[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                results[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            System.exit(-1);
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+
+        if (isJson)
+            printJson(out, results, elapsedNanos, peakHeapBytes);
+        else
+            printCsv(out, results, elapsedNanos, peakHeapBytes);
+    }
+
+    private RunResult execute(Map<String, String> options, int run) {
+        RunResult result = new RunResult();
+        result.run = run;
+        result.seed = seed + run;
+        result.thread = Thread.currentThread().getName();
+
+        long startTime = System.nanoTime();
+        Maze maze = generator.generate(size, size, result.seed, options);
+        result.generateNanos = System.nanoTime() - startTime;
+
+        Point first;
+        Point last;
+        if (isRandomEndpoints) {
+            EmptyCellIndex index = EmptyCellIndex.forMaze(maze);
+            Random random = new Random(result.seed);
+            first = index.getRandomEmptyPoint(random);
+            last = index.getRandomEmptyPoint(random);
+        } else {
+            first = maze.getFirstEmptyPoint();
+            last = maze.getLastEmptyPoint();
+        }
+        startTime = System.nanoTime();
+        MazePath path = MazePathFactory.getMazePath(solver, maze, first.x, first.y, last.x, last.y);
+        result.solveNanos = System.nanoTime() - startTime;
+
+        result.width = maze.getWidth();
+        result.height = maze.getHeight();
+        result.pathLength = path.getPath().size();
+        result.expandedNodes = path.getExpandedNodeCount();
+        return result;
+    }
+
+    private void printCsv(PrintStream out, RunResult[] results, long elapsedNanos, long peakHeapBytes) {
+        out.println("run,seed,thread,width,height,generate_us,solve_us,path_length,expanded_nodes");
+        for (RunResult result : results) {
+            out.println(result.run + "," + result.seed + "," + result.thread + "," + result.width + ","
+                    + result.height + "," + result.generateNanos / 1000 + "," + result.solveNanos / 1000 + ","
+                    + result.pathLength + "," + result.expandedNodes);
+        }
+
+        out.println("# generator," + generatorName);
+        out.println("# solver," + solverClassName);
+        out.println("# threads," + threads);
+        out.println("# endpoints," + (isRandomEndpoints ? "random" : "ends"));
+        out.println("# elapsed_ms," + elapsedNanos / 1000000);
+        out.println("# mazes_per_second," + getThroughput(elapsedNanos));
+        out.println("# peak_heap_bytes_upper_bound," + peakHeapBytes);
+        out.println("# peak_scratch_bytes," + MazeMetrics.getPeakScratchBytes());
+    }
+
+    private void printJson(PrintStream out, RunResult[] results, long elapsedNanos, long peakHeapBytes) {
+        out.println("{");
+        out.println("  \"runs\": [");
+        for (int i = 0; i < results.length; i++) {
+            RunResult result = results[i];
+            out.println("    {\"run\": " + result.run + ", \"seed\": " + result.seed
+                    + ", \"thread\": " + toJsonString(result.thread) + ", \"width\": " + result.width
+                    + ", \"height\": " + result.height + ", \"generate_us\": " + result.generateNanos / 1000
+                    + ", \"solve_us\": " + result.solveNanos / 1000 + ", \"path_length\": " + result.pathLength
+                    + ", \"expanded_nodes\": " + result.expandedNodes + "}" + (i == results.length - 1 ? "" : ","));
+        }
+        out.println("  ],");
+        out.println("  \"summary\": {\"generator\": " + toJsonString(generatorName) + ", \"solver\": "
+                + toJsonString(solverClassName) + ", \"threads\": " + threads + ", \"endpoints\": \""
+                + (isRandomEndpoints ? "random" : "ends") + "\", \"elapsed_ms\": " + elapsedNanos / 1000000
+                + ", \"mazes_per_second\": " + getThroughput(elapsedNanos)
+                + ", \"peak_heap_bytes_upper_bound\": " + peakHeapBytes
+                + ", \"peak_scratch_bytes\": " + MazeMetrics.getPeakScratchBytes() + "}");
+        out.println("}");
+    }
+
+    /**
+     * @return the value as a quoted JSON string
+     */
+    private static String toJsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < 0x20)
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        sb.append('"');
+
+        return sb.toString();
+    }
+
+    private double getThroughput(long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+
+    private static class RunResult {
+        private int run;
+        private long seed;
+        private String thread;
+        private int width;
+        private int height;
+        private long generateNanos;
+        private long solveNanos;
+        private int pathLength;
+        private int expandedNodes;
+    }
+}
@@ -7,11 +7,20 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 
 public class MainForm extends JFrame {
     private JPanel rootPanel;
     private JButton generateButton;
     private JButton findPathButton;
+    private JButton zoomInButton;
+    private JButton zoomOutButton;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private JScrollPane mazeScrollPane;
     private MazeVisualizer mazeVisualizer;
 
     public MainForm() {
@@ -20,7 +29,6 @@ public class MainForm extends JFrame {
         setContentPane(rootPanel);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setBounds(300, 100, getWidth(), getHeight());
-        setResizable(false);
         pack();
         setVisible(true);
 
@@ -36,6 +44,35 @@ public class MainForm extends JFrame {
                 mazeVisualizer.generateNewPath();
             }
         });
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                mazeVisualizer.cancelTask();
+            }
+        });
+        mazeVisualizer.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("busy".equals(evt.getPropertyName()) || "status".equals(evt.getPropertyName())) {
+                    progressBar.setVisible(mazeVisualizer.isBusy());
+                    progressBar.setIndeterminate(mazeVisualizer.isBusy());
+                    progressBar.setString(mazeVisualizer.getStatus());
+                    cancelButton.setEnabled(mazeVisualizer.isBusy());
+                }
+            }
+        });
+        zoomInButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                mazeVisualizer.zoomIn();
+            }
+        });
+        zoomOutButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                mazeVisualizer.zoomOut();
+            }
+        });
         mazeVisualizer.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
@@ -44,6 +81,15 @@ public class MainForm extends JFrame {
                 mazeVisualizer.addAppropriateFlagIfPossible(e.getY(), e.getX());
             }
         });
+        mazeVisualizer.addMouseWheelListener(new MouseWheelListener() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (e.isControlDown())
+                    mazeVisualizer.zoom(-e.getWheelRotation(), e.getY(), e.getX());
+                else
+                    mazeScrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(mazeVisualizer, e, mazeScrollPane));
+            }
+        });
     }
 
     private void createUIComponents() {
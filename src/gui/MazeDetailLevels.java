@@ -0,0 +1,101 @@
+package gui;
+
+import maze.Maze;
+import maze.MazeBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Downsampled levels of detail of a maze. On level n every entry covers a square
+ * of 2^n x 2^n cells and holds the share of walls in it, from 0 to 255. All
+ * levels are built up front, each from the previous one, so only the first
+ * level scans the maze. Build them off the event dispatch thread.
+ */
+final class MazeDetailLevels {
+    private final Maze maze;
+    private final List<byte[]> levels = new ArrayList<byte[]>();
+
+    /**
+     * Builds the levels from 1 to maxLevel in O(cells).
+     */
+    MazeDetailLevels(Maze maze, int maxLevel) {
+        this.maze = maze;
+
+        levels.add(buildFirstLevel());
+        while (levels.size() < maxLevel) {
+            levels.add(buildNextLevel(levels.size() + 1, levels.get(levels.size() - 1)));
+        }
+    }
+
+    int getWidth(int level) {
+        return (maze.getWidth() + (1 << level) - 1) >> level;
+    }
+
+    int getHeight(int level) {
+        return (maze.getHeight() + (1 << level) - 1) >> level;
+    }
+
+    /**
+     * @return the wall share of the square at the given position of the level
+     */
+    int getWallDensity(int level, int indexX, int indexY) {
+        return getLevel(level)[indexX * getWidth(level) + indexY] & 0xFF;
+    }
+
+    private byte[] getLevel(int level) {
+        if (level < 1 || level > levels.size())
+            throw new IllegalArgumentException("Level must be from 1 to " + levels.size());
+
+        return levels.get(level - 1);
+    }
+
+    private byte[] buildFirstLevel() {
+        int mazeWidth = maze.getWidth();
+        int mazeHeight = maze.getHeight();
+        int width = getWidth(1);
+        byte[] densities = new byte[width * getHeight(1)];
+
+        for (int i = 0; i < mazeHeight; i += 2) {
+            for (int j = 0; j < mazeWidth; j += 2) {
+                int walls = 0;
+                int cells = 0;
+                for (int k = i; k < i + 2 && k < mazeHeight; k++) {
+                    for (int l = j; l < j + 2 && l < mazeWidth; l++) {
+                        if (maze.getBlockAt(k, l) == MazeBlock.WALL)
+                            walls++;
+                        cells++;
+                    }
+                }
+
+                densities[(i >> 1) * width + (j >> 1)] = (byte) (walls * 255 / cells);
+            }
+        }
+
+        return densities;
+    }
+
+    private byte[] buildNextLevel(int level, byte[] previous) {
+        int previousWidth = getWidth(level - 1);
+        int previousHeight = getHeight(level - 1);
+        int width = getWidth(level);
+        byte[] densities = new byte[width * getHeight(level)];
+
+        for (int i = 0; i < previousHeight; i += 2) {
+            for (int j = 0; j < previousWidth; j += 2) {
+                int sum = 0;
+                int count = 0;
+                for (int k = i; k < i + 2 && k < previousHeight; k++) {
+                    for (int l = j; l < j + 2 && l < previousWidth; l++) {
+                        sum += previous[k * previousWidth + l] & 0xFF;
+                        count++;
+                    }
+                }
+
+                densities[(i >> 1) * width + (j >> 1)] = (byte) (sum / count);
+            }
+        }
+
+        return densities;
+    }
+}
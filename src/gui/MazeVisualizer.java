@@ -2,26 +2,53 @@ package gui;
 
 import maze.*;
 import maze.Point;
+import metrics.MazeMetrics;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+public class MazeVisualizer extends JPanel implements Scrollable {
+    private static final int MAX_ZOOM = 2;
+    private static final int MAX_DETAIL_LEVEL = 8;
+    private static final int MIN_TILE_SIZE = 4;
+    private static final int MIN_FLAG_SIZE = 7;
+    private static final int MIN_SCROLL_INCREMENT = 16;
+    private static final long MAX_CACHED_IMAGE_PIXELS = 1 << 22;
 
-public class MazeVisualizer extends JPanel {
     private Maze maze;
-    private MazePath mazePath;
+    private PathChunks pathChunks;
     private BufferedImage wallImg;
     private BufferedImage emptyImg;
     private BufferedImage pathImg;
     private BufferedImage startStopPathImg;
+    private BufferedImage scaledWallImg;
+    private BufferedImage scaledEmptyImg;
+    private BufferedImage scaledPathImg;
+    private BufferedImage mazeImg;
+    private BufferedImage viewImg;
+    private MazeDetailLevels detailLevels;
+    private ShortestPathTree pathTree;
     private Point firstPoint;
     private Point secondPoint;
     private boolean isNextPointIsFirst = true;
+    private SwingWorker<?, ?> task;
+    private String status;
+    private int endpointsVersion;
 
     private int imageSize;
+    private int wallRgb;
+    private int emptyRgb;
+    private int pathRgb;
+
+    private int zoom;
+    private int minZoom;
+    private int cellSize;
+    private int detailLevel;
 
     public MazeVisualizer() {
         try {
@@ -40,6 +67,13 @@ public class MazeVisualizer extends JPanel {
             e.printStackTrace();
             System.exit(-1);
         }
+
+        wallRgb = averageRgb(wallImg);
+        emptyRgb = averageRgb(emptyImg);
+        pathRgb = averageRgb(pathImg);
+
+        minZoom = -(31 - Integer.numberOfLeadingZeros(imageSize) + MAX_DETAIL_LEVEL);
+        applyZoom();
     }
 
 
@@ -50,10 +84,17 @@ public class MazeVisualizer extends JPanel {
         if (maze == null)
             printInfo(graphics);
         else {
-            paintMaze(maze, graphics);
+            Rectangle clip = graphics.getClipBounds();
+            if (clip == null)
+                clip = new Rectangle(getWidth(), getHeight());
+
+            if (cellSize >= MIN_TILE_SIZE) {
+                paintMaze(graphics, clip);
 
-            if (mazePath != null)
-                paintPath(mazePath, graphics);
+                if (pathChunks != null)
+                    paintPath(graphics, clip);
+            } else
+                paintScaledDown(graphics, clip);
 
             paintStartFinishFlags(graphics);
         }
@@ -67,55 +108,208 @@ public class MazeVisualizer extends JPanel {
         graphics.drawString("иначе вы можете сами указать точку нажатием ЛКМ на соотвутствующей клетке", 5, 75);
     }
 
-    private void paintMaze(Maze m, Graphics g) {
-        int mazeHeight = m.getHeight();
-        int mazeWidth = m.getWidth();
+    /**
+     * Copies the whole maze from the cached image while it is small enough,
+     * otherwise draws tiles of the visible cells only.
+     */
+    private void paintMaze(Graphics graphics, Rectangle clip) {
+        if ((long) maze.getWidth() * maze.getHeight() * cellSize * cellSize <= MAX_CACHED_IMAGE_PIXELS) {
+            if (mazeImg == null)
+                mazeImg = renderMazeImage(maze);
+            graphics.drawImage(mazeImg, 0, 0, null);
+            return;
+        }
+
+        int firstRow = clip.y / cellSize;
+        int lastRow = Math.min(maze.getHeight() - 1, (clip.y + clip.height - 1) / cellSize);
+        int firstColumn = clip.x / cellSize;
+        int lastColumn = Math.min(maze.getWidth() - 1, (clip.x + clip.width - 1) / cellSize);
+
+        paintTiles(maze, graphics, firstRow, lastRow, firstColumn, lastColumn);
+    }
 
-        for (int i = 0; i < mazeWidth; i++) {
-            for (int j = 0; j < mazeHeight; j++) {
-                MazeBlock block = m.getBlockAt(j, i);
+    /**
+     * Drops the rendered maze, so that the next paint renders it again.
+     */
+    void invalidateMazeImage() {
+        mazeImg = null;
+    }
+
+    /**
+     * Renders the static maze once, so that a repaint only has to copy it.
+     */
+    private BufferedImage renderMazeImage(Maze m) {
+        int width = m.getWidth() * cellSize;
+        int height = m.getHeight() * cellSize;
+
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        BufferedImage img;
+        if (configuration != null)
+            img = configuration.createCompatibleImage(width, height);
+        else
+            img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        Graphics g = img.createGraphics();
+        try {
+            paintTiles(m, g, 0, m.getHeight() - 1, 0, m.getWidth() - 1);
+        } finally {
+            g.dispose();
+        }
+
+        return img;
+    }
+
+    private void paintTiles(Maze m, Graphics g, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstColumn; j <= lastColumn; j++) {
+                MazeBlock block = m.getBlockAt(i, j);
                 BufferedImage imgToDraw = null;
                 switch (block) {
                     case EMPTY:
-                        imgToDraw = emptyImg;
+                        imgToDraw = scaledEmptyImg;
                         break;
                     case WALL:
-                        imgToDraw = wallImg;
+                        imgToDraw = scaledWallImg;
                         break;
                 }
 
-                g.drawImage(imgToDraw, i * imageSize, j * imageSize, null);
+                g.drawImage(imgToDraw, j * cellSize, i * cellSize, null);
             }
         }
     }
 
-    private void paintPath(MazePath mp, Graphics graphics) {
-        java.util.List<Point> pathList = mp.getPathList();
+    private void paintPath(Graphics graphics, Rectangle clip) {
+        CompactPath path = pathChunks.getPath();
+        int firstRow = clip.y / cellSize;
+        int lastRow = (clip.y + clip.height - 1) / cellSize;
+        int firstColumn = clip.x / cellSize;
+        int lastColumn = (clip.x + clip.width - 1) / cellSize;
+
+        for (int chunk = 0; chunk < pathChunks.getChunkCount(); chunk++) {
+            if (!pathChunks.intersects(chunk, firstRow, lastRow, firstColumn, lastColumn))
+                continue;
 
-        for (int i = 0; i < pathList.size(); i++) {
-            Point point = pathList.get(i);
-            graphics.drawImage(pathImg, point.y * imageSize, point.x * imageSize, null);
+            for (int i = pathChunks.getChunkStart(chunk); i < pathChunks.getChunkEnd(chunk); i++) {
+                int row = path.getX(i);
+                int column = path.getY(i);
+
+                if (row >= firstRow && row <= lastRow && column >= firstColumn && column <= lastColumn)
+                    graphics.drawImage(scaledPathImg, column * cellSize, row * cellSize, null);
+            }
+        }
+    }
+
+    /**
+     * Draws the visible part of the maze at a few pixels per cell, or at one pixel
+     * per square of a downsampled level, through a buffer of one pixel per drawn
+     * unit. The work done depends on the visible area only.
+     */
+    private void paintScaledDown(Graphics graphics, Rectangle clip) {
+        int units = toUnits(maze.getHeight());
+        int firstRow = clip.y / cellSize;
+        int lastRow = Math.min(units - 1, (clip.y + clip.height - 1) / cellSize);
+        units = toUnits(maze.getWidth());
+        int firstColumn = clip.x / cellSize;
+        int lastColumn = Math.min(units - 1, (clip.x + clip.width - 1) / cellSize);
+        if (lastRow < firstRow || lastColumn < firstColumn)
+            return;
+
+        int rows = lastRow - firstRow + 1;
+        int columns = lastColumn - firstColumn + 1;
+        if (viewImg == null || viewImg.getWidth() < columns || viewImg.getHeight() < rows) {
+            viewImg = new BufferedImage(Math.max(columns, viewImg == null ? 0 : viewImg.getWidth()),
+                    Math.max(rows, viewImg == null ? 0 : viewImg.getHeight()), BufferedImage.TYPE_INT_RGB);
+        }
+        int[] pixels = ((DataBufferInt) viewImg.getRaster().getDataBuffer()).getData();
+        int stride = viewImg.getWidth();
+
+        if (detailLevel == 0) {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    pixels[i * stride + j] = maze.getBlockAt(firstRow + i, firstColumn + j) == MazeBlock.WALL
+                            ? wallRgb : emptyRgb;
+                }
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    pixels[i * stride + j] = blendRgb(emptyRgb, wallRgb,
+                            detailLevels.getWallDensity(detailLevel, firstRow + i, firstColumn + j));
+                }
+            }
+        }
+
+        if (pathChunks != null) {
+            CompactPath path = pathChunks.getPath();
+            for (int chunk = 0; chunk < pathChunks.getChunkCount(); chunk++) {
+                if (!pathChunks.intersects(chunk, firstRow << detailLevel, ((lastRow + 1) << detailLevel) - 1,
+                        firstColumn << detailLevel, ((lastColumn + 1) << detailLevel) - 1))
+                    continue;
+
+                for (int i = pathChunks.getChunkStart(chunk); i < pathChunks.getChunkEnd(chunk); i++) {
+                    int row = (path.getX(i) >> detailLevel) - firstRow;
+                    int column = (path.getY(i) >> detailLevel) - firstColumn;
+
+                    if (row >= 0 && row < rows && column >= 0 && column < columns)
+                        pixels[row * stride + column] = pathRgb;
+                }
+            }
         }
+
+        graphics.drawImage(viewImg, firstColumn * cellSize, firstRow * cellSize,
+                (lastColumn + 1) * cellSize, (lastRow + 1) * cellSize, 0, 0, columns, rows, null);
     }
 
     private void paintStartFinishFlags(Graphics graphics) {
-        graphics.drawImage(startStopPathImg, secondPoint.y * imageSize, secondPoint.x * imageSize, null);
-        graphics.drawImage(startStopPathImg, firstPoint.y * imageSize, firstPoint.x * imageSize, null);
+        int flagSize = Math.max(cellSize, MIN_FLAG_SIZE);
+        int offset = (cellSize - flagSize) / 2;
+
+        graphics.drawImage(startStopPathImg, toPixel(secondPoint.y) + offset, toPixel(secondPoint.x) + offset,
+                flagSize, flagSize, null);
+        graphics.drawImage(startStopPathImg, toPixel(firstPoint.y) + offset, toPixel(firstPoint.x) + offset,
+                flagSize, flagSize, null);
     }
 
+    /**
+     * Generates a new maze and its detail levels on a background worker. The
+     * generators return correct mazes only, so the maze is not validated here.
+     */
     public void generateNewMaze() {
-        maze = MazeFactory.getMaze();
-        while (!maze.isCorrect()) {
-            maze = MazeFactory.getMaze();
-        }
+        startTask(new SwingWorker<Maze, Void>() {
+            private MazeDetailLevels generatedLevels;
 
-        firstPoint = maze.getFirstEmptyPoint();
-        secondPoint = maze.getLastEmptyPoint();
+            @Override
+            protected Maze doInBackground() {
+                Maze generated = MazeFactory.getMaze();
+                if (isCancelled())
+                    return null;
 
-        mazePath = null;
-        repaint();
+                generatedLevels = createDetailLevels(generated);
+                return generated;
+            }
+
+            @Override
+            protected void done() {
+                if (task != this)
+                    return;
+                finishTask();
+
+                Maze generated = getTaskResult(this);
+                if (generated != null)
+                    showMaze(generated, generatedLevels);
+            }
+        }, "Generating");
     }
 
+    /**
+     * Finds a path between the flags. A search from a new start builds the
+     * breadth-first shortest-path tree of the start on a background worker. The
+     * tree replaces the configured MazePath here, so the visualizer shows the
+     * same shortest paths whichever solver is configured. While the tree is
+     * rooted at one of the flags, a move of the other flag reads the path from
+     * the tree in time proportional to its length, without a new search. A
+     * found path is dropped if the maze or a flag has changed in the meantime.
+     */
     public void generateNewPath() {
         if (maze == null)
             return;
@@ -127,30 +321,364 @@ public class MazeVisualizer extends JPanel {
             secondPoint = maze.getLastEmptyPoint();
         }
 
-        mazePath = new WaveMazePath(maze, firstPoint.x, firstPoint.y, secondPoint.x, secondPoint.y);
+        if (pathTree != null && pathTree.isRootedAt(maze, firstPoint.x, firstPoint.y)) {
+            showPath(pathTree.getPathTo(secondPoint.x, secondPoint.y));
+            return;
+        }
+        if (pathTree != null && pathTree.isRootedAt(maze, secondPoint.x, secondPoint.y)) {
+            showPath(pathTree.getPathFrom(firstPoint.x, firstPoint.y));
+            return;
+        }
+
+        final Maze searchedMaze = maze;
+        final Point start = firstPoint;
+        final Point finish = secondPoint;
+        final int version = endpointsVersion;
+
+        startTask(new SwingWorker<MazePath, Void>() {
+            private ShortestPathTree builtTree;
+
+            @Override
+            protected MazePath doInBackground() {
+                long startTime = System.nanoTime();
+                builtTree = new ShortestPathTree(searchedMaze, start.x, start.y);
+                MazeMetrics.recordSolve(System.nanoTime() - startTime, builtTree.getExpandedNodeCount());
 
+                return builtTree.getPathTo(finish.x, finish.y);
+            }
+
+            @Override
+            protected void done() {
+                if (task != this)
+                    return;
+                finishTask();
+
+                MazePath found = getTaskResult(this);
+                if (found == null || searchedMaze != maze)
+                    return;
+
+                pathTree = builtTree;
+                if (version == endpointsVersion)
+                    showPath(found);
+            }
+        }, "Searching path");
+    }
+
+    /**
+     * Cancels the running generation or search and frees the view at once. Its
+     * result is dropped, but the generator or solver is not interrupted: a step
+     * already under way runs to completion on the worker thread, only the
+     * building of the detail levels after a generation is skipped.
+     */
+    public void cancelTask() {
+        if (task == null)
+            return;
+
+        task.cancel(true);
+        finishTask();
+    }
+
+    public boolean isBusy() {
+        return task != null;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Shows the maze, building its detail levels in the calling thread.
+     */
+    void showMaze(Maze m) {
+        showMaze(m, createDetailLevels(m));
+    }
+
+    void showMaze(Maze m, MazeDetailLevels levels) {
+        maze = m;
+        firstPoint = maze.getFirstEmptyPoint();
+        secondPoint = maze.getLastEmptyPoint();
+        endpointsVersion++;
+
+        mazeImg = null;
+        detailLevels = levels;
+        pathTree = null;
+        pathChunks = null;
+        revalidate();
         repaint();
     }
 
+    void showPath(MazePath mp) {
+        repaintPath();
+        pathChunks = mp != null ? new PathChunks(mp.getPath()) : null;
+
+        repaintPath();
+        repaintCell(firstPoint);
+        repaintCell(secondPoint);
+    }
+
+    /**
+     * @return the levels of detail used to draw the maze zoomed out, an O(cells) pass
+     */
+    private static MazeDetailLevels createDetailLevels(Maze m) {
+        return new MazeDetailLevels(m, MAX_DETAIL_LEVEL);
+    }
+
+    private void startTask(SwingWorker<?, ?> worker, String taskStatus) {
+        if (task != null)
+            task.cancel(true);
+
+        task = worker;
+        setStatus(taskStatus);
+        firePropertyChange("busy", false, true);
+        worker.execute();
+    }
+
+    private void finishTask() {
+        task = null;
+        setStatus(null);
+        firePropertyChange("busy", true, false);
+    }
+
+    private void setStatus(String newStatus) {
+        String oldStatus = status;
+        status = newStatus;
+        firePropertyChange("status", oldStatus, newStatus);
+    }
+
+    /**
+     * @return the result of the finished worker or null if it was cancelled or failed
+     */
+    private static <T> T getTaskResult(SwingWorker<T, ?> worker) {
+        if (worker.isCancelled())
+            return null;
+
+        try {
+            return worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+
     public void addAppropriateFlagIfPossible(int x, int y) {
 
-        if (maze == null)
+        if (maze == null || x < 0 || y < 0)
             return;
 
-        int indexX = x / imageSize;
-        int indexY = y / imageSize;
+        int indexX = toCell(x);
+        int indexY = toCell(y);
+        if (indexX >= maze.getHeight() || indexY >= maze.getWidth())
+            return;
 
         if (maze.getBlockAt(indexX, indexY) == MazeBlock.EMPTY) {
             if (isNextPointIsFirst) {
+                repaintCell(firstPoint);
                 firstPoint = new Point(indexX, indexY);
                 isNextPointIsFirst = false;
             } else {
+                repaintCell(secondPoint);
                 secondPoint = new Point(indexX, indexY);
                 isNextPointIsFirst = true;
             }
+            repaintCell(new Point(indexX, indexY));
+        }
+        endpointsVersion++;
+        repaintPath();
+        pathChunks = null;
+    }
+
+    public void zoomIn() {
+        Rectangle visible = getVisibleRect();
+        zoom(1, visible.y + visible.height / 2, visible.x + visible.width / 2);
+    }
+
+    public void zoomOut() {
+        Rectangle visible = getVisibleRect();
+        zoom(-1, visible.y + visible.height / 2, visible.x + visible.width / 2);
+    }
+
+    /**
+     * Changes the zoom by the given number of steps keeping the cell under the
+     * given pixel in place when the visualizer is in a viewport.
+     */
+    public void zoom(int steps, int x, int y) {
+        int newZoom = Math.max(minZoom, Math.min(MAX_ZOOM, zoom + steps));
+        if (newZoom == zoom)
+            return;
+
+        int indexX = toCell(x);
+        int indexY = toCell(y);
+
+        zoom = newZoom;
+        applyZoom();
+        revalidate();
+
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            JViewport viewport = (JViewport) parent;
+            java.awt.Point viewPosition = viewport.getViewPosition();
+            Dimension size = getPreferredSize();
+            Dimension extent = viewport.getExtentSize();
+
+            int left = toPixel(indexY) - (y - viewPosition.x);
+            int top = toPixel(indexX) - (x - viewPosition.y);
+            left = Math.max(0, Math.min(left, size.width - extent.width));
+            top = Math.max(0, Math.min(top, size.height - extent.height));
+
+            viewport.setViewSize(size);
+            viewport.setViewPosition(new java.awt.Point(left, top));
         }
-        mazePath = null;
 
         repaint();
     }
+
+    /**
+     * Derives the drawn cell size and the level of detail from the zoom. Zoom 0 is
+     * the native image size, every step halves or doubles it, and past one pixel
+     * per cell every step doubles the side of the square shown by one pixel.
+     */
+    private void applyZoom() {
+        if (zoom >= 0) {
+            cellSize = imageSize << zoom;
+            detailLevel = 0;
+        } else if ((imageSize >> -zoom) > 0) {
+            cellSize = imageSize >> -zoom;
+            detailLevel = 0;
+        } else {
+            cellSize = 1;
+            detailLevel = -zoom - (31 - Integer.numberOfLeadingZeros(imageSize));
+        }
+
+        if (cellSize >= MIN_TILE_SIZE) {
+            scaledWallImg = scaleImage(wallImg);
+            scaledEmptyImg = scaleImage(emptyImg);
+            scaledPathImg = scaleImage(pathImg);
+        }
+        mazeImg = null;
+    }
+
+    private BufferedImage scaleImage(BufferedImage img) {
+        if (cellSize == img.getWidth())
+            return img;
+
+        BufferedImage scaled = new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(img, 0, 0, cellSize, cellSize, null);
+        } finally {
+            g.dispose();
+        }
+
+        return scaled;
+    }
+
+    /**
+     * @return the mean colour of the opaque pixels of the image
+     */
+    private static int averageRgb(BufferedImage img) {
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        long count = 0;
+
+        for (int i = 0; i < img.getHeight(); i++) {
+            for (int j = 0; j < img.getWidth(); j++) {
+                int argb = img.getRGB(j, i);
+                if ((argb >>> 24) < 128)
+                    continue;
+
+                red += (argb >> 16) & 0xFF;
+                green += (argb >> 8) & 0xFF;
+                blue += argb & 0xFF;
+                count++;
+            }
+        }
+
+        if (count == 0)
+            return 0;
+        return (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+    }
+
+    private static int blendRgb(int from, int to, int weight) {
+        int red = ((from >> 16) & 0xFF) + (((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)) * weight / 255;
+        int green = ((from >> 8) & 0xFF) + (((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)) * weight / 255;
+        int blue = (from & 0xFF) + ((to & 0xFF) - (from & 0xFF)) * weight / 255;
+
+        return red << 16 | green << 8 | blue;
+    }
+
+    /**
+     * @return the number of drawn units along a side of the given number of cells
+     */
+    private int toUnits(int cells) {
+        return (cells + (1 << detailLevel) - 1) >> detailLevel;
+    }
+
+    private int toPixel(int index) {
+        return (index >> detailLevel) * cellSize;
+    }
+
+    private int toCell(int pixel) {
+        return (pixel / cellSize) << detailLevel;
+    }
+
+    private void repaintCell(Point p) {
+        if (p == null)
+            return;
+
+        int flagSize = Math.max(cellSize, MIN_FLAG_SIZE);
+        int offset = (cellSize - flagSize) / 2;
+        repaint(toPixel(p.y) + offset, toPixel(p.x) + offset, flagSize, flagSize);
+    }
+
+    /**
+     * Repaints the bounding box of the shown path, the painting itself is limited
+     * to the visible part of it.
+     */
+    private void repaintPath() {
+        if (pathChunks == null || pathChunks.isEmpty())
+            return;
+
+        int left = toPixel(pathChunks.getMinY());
+        int top = toPixel(pathChunks.getMinX());
+        repaint(left, top, toPixel(pathChunks.getMaxY()) - left + cellSize,
+                toPixel(pathChunks.getMaxX()) - top + cellSize);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (maze == null || isPreferredSizeSet())
+            return super.getPreferredSize();
+
+        return new Dimension(toUnits(maze.getWidth()) * cellSize, toUnits(maze.getHeight()) * cellSize);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return Math.max(cellSize, MIN_SCROLL_INCREMENT);
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() instanceof JViewport && getParent().getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
 }
@@ -0,0 +1,100 @@
+package gui;
+
+import maze.CompactPath;
+
+/**
+ * Bounding boxes of consecutive chunks of a path. Painting walks only the
+ * chunks whose box meets the clip, so a long path that is mostly out of view
+ * costs a check per chunk instead of one per cell.
+ */
+final class PathChunks {
+    private static final int CHUNK_SIZE = 256;
+
+    private final CompactPath path;
+    //minX, minY, maxX, maxY of every chunk
+    private final int[] bounds;
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+
+    PathChunks(CompactPath path) {
+        this.path = path;
+        bounds = new int[(path.size() + CHUNK_SIZE - 1) / CHUNK_SIZE * 4];
+
+        int pathMinX = Integer.MAX_VALUE;
+        int pathMinY = Integer.MAX_VALUE;
+        int pathMaxX = Integer.MIN_VALUE;
+        int pathMaxY = Integer.MIN_VALUE;
+        for (int chunk = 0; chunk < getChunkCount(); chunk++) {
+            int chunkMinX = Integer.MAX_VALUE;
+            int chunkMinY = Integer.MAX_VALUE;
+            int chunkMaxX = Integer.MIN_VALUE;
+            int chunkMaxY = Integer.MIN_VALUE;
+            for (int i = getChunkStart(chunk); i < getChunkEnd(chunk); i++) {
+                chunkMinX = Math.min(chunkMinX, path.getX(i));
+                chunkMinY = Math.min(chunkMinY, path.getY(i));
+                chunkMaxX = Math.max(chunkMaxX, path.getX(i));
+                chunkMaxY = Math.max(chunkMaxY, path.getY(i));
+            }
+
+            bounds[chunk * 4] = chunkMinX;
+            bounds[chunk * 4 + 1] = chunkMinY;
+            bounds[chunk * 4 + 2] = chunkMaxX;
+            bounds[chunk * 4 + 3] = chunkMaxY;
+            pathMinX = Math.min(pathMinX, chunkMinX);
+            pathMinY = Math.min(pathMinY, chunkMinY);
+            pathMaxX = Math.max(pathMaxX, chunkMaxX);
+            pathMaxY = Math.max(pathMaxY, chunkMaxY);
+        }
+
+        minX = pathMinX;
+        minY = pathMinY;
+        maxX = pathMaxX;
+        maxY = pathMaxY;
+    }
+
+    CompactPath getPath() {
+        return path;
+    }
+
+    boolean isEmpty() {
+        return path.size() == 0;
+    }
+
+    int getChunkCount() {
+        return bounds.length / 4;
+    }
+
+    int getChunkStart(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    int getChunkEnd(int chunk) {
+        return Math.min(path.size(), (chunk + 1) * CHUNK_SIZE);
+    }
+
+    /**
+     * @return true if the chunk has a cell in the given rectangle of cells, bounds included
+     */
+    boolean intersects(int chunk, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        return bounds[chunk * 4] <= lastRow && bounds[chunk * 4 + 2] >= firstRow
+                && bounds[chunk * 4 + 1] <= lastColumn && bounds[chunk * 4 + 3] >= firstColumn;
+    }
+
+    int getMinX() {
+        return minX;
+    }
+
+    int getMinY() {
+        return minY;
+    }
+
+    int getMaxX() {
+        return maxX;
+    }
+
+    int getMaxY() {
+        return maxY;
+    }
+}
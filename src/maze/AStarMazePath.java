@@ -0,0 +1,197 @@
+package maze;
+
+import java.util.List;
+
+/**
+ * Path finder that runs A* with the Manhattan distance to the finish as the heuristic.
+ * The open set is a binary heap of flat cell indices with decrease-key support,
+ * and all the per-cell state lives in the primitive arrays of {@link SearchScratch}.
+ * Among cells with equal estimates the one closer to the finish is expanded first,
+ * so near endpoints are reached without exploring the rest of the maze.
+ */
+public class AStarMazePath implements MazePath {
+    private final boolean isPathExists;
+    private CompactPath path;
+    private int expandedNodeCount = 0;
+
+    private int width;
+    private int finishX;
+    private int finishY;
+    private int stamp;
+    private int heapSize;
+    private SearchScratch scratch;
+
+    public AStarMazePath(Maze maze, int startX, int startY, int finishX, int finishY) {
+        isPathExists = generate(maze, startX, startY, finishX, finishY, SearchScratch.forCurrentThread());
+        scratch = null;
+    }
+
+    @Override
+    public boolean isExist() {
+        return isPathExists;
+    }
+
+    @Override
+    public CompactPath getPath() {
+        return path;
+    }
+
+    @Override
+    public List<Point> getPathList() {
+        return path.asList();
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    private boolean generate(Maze maze, int startX, int startY, int finishX, int finishY, SearchScratch scratch) {
+        int cells = SearchScratch.getCellCount(maze);
+        path = CompactPath.empty(maze.getWidth());
+        if (maze.getBlockAt(startX, startY) == MazeBlock.WALL || maze.getBlockAt(finishX, finishY) == MazeBlock.WALL)
+            return false;
+
+        this.scratch = scratch;
+        this.finishX = finishX;
+        this.finishY = finishY;
+        width = maze.getWidth();
+        int height = maze.getHeight();
+
+        stamp = scratch.begin(cells);
+        scratch.ensureHeapCapacity(cells);
+        int[] gScores = scratch.distances;
+        int[] parents = scratch.parents;
+
+        int start = startX * width + startY;
+        int finish = finishX * width + finishY;
+
+        heapSize = 0;
+        discover(start, start, 0);
+
+        while (heapSize > 0) {
+            int cell = poll();
+            ++expandedNodeCount;
+            if (cell == finish)
+                break;
+
+            int x = cell / width;
+            int y = cell - x * width;
+            int g = gScores[cell] + 1;
+
+            if (x > 0 && maze.getBlockAt(x - 1, y) == MazeBlock.EMPTY)
+                relax(cell - width, cell, g);
+            if (x < height - 1 && maze.getBlockAt(x + 1, y) == MazeBlock.EMPTY)
+                relax(cell + width, cell, g);
+            if (y > 0 && maze.getBlockAt(x, y - 1) == MazeBlock.EMPTY)
+                relax(cell - 1, cell, g);
+            if (y < width - 1 && maze.getBlockAt(x, y + 1) == MazeBlock.EMPTY)
+                relax(cell + 1, cell, g);
+        }
+
+        if (scratch.marks[finish] != stamp)
+            return false;
+
+        path = CompactPath.fromParents(width, parents, start, finish);
+        return true;
+    }
+
+    private void relax(int cell, int parent, int g) {
+        if (scratch.marks[cell] != stamp) {
+            discover(cell, parent, g);
+        } else if (scratch.heapPositions[cell] >= 0 && g < scratch.distances[cell]) {
+            scratch.distances[cell] = g;
+            scratch.parents[cell] = parent;
+            int position = scratch.heapPositions[cell];
+            scratch.heapKeys[position] = key(cell, g);
+            siftUp(position);
+        }
+    }
+
+    private void discover(int cell, int parent, int g) {
+        scratch.marks[cell] = stamp;
+        scratch.distances[cell] = g;
+        scratch.parents[cell] = parent;
+
+        scratch.heap[heapSize] = cell;
+        scratch.heapKeys[heapSize] = key(cell, g);
+        scratch.heapPositions[cell] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    /**
+     * Orders by the estimated path length first and by the remaining distance second.
+     */
+    private long key(int cell, int g) {
+        int x = cell / width;
+        int y = cell - x * width;
+        int h = Math.abs(x - finishX) + Math.abs(y - finishY);
+
+        return ((long) (g + h) << 32) | h;
+    }
+
+    private int poll() {
+        int[] heap = scratch.heap;
+        int cell = heap[0];
+        scratch.heapPositions[cell] = -1;
+
+        if (--heapSize > 0) {
+            heap[0] = heap[heapSize];
+            scratch.heapKeys[0] = scratch.heapKeys[heapSize];
+            scratch.heapPositions[heap[0]] = 0;
+            siftDown(0);
+        }
+
+        return cell;
+    }
+
+    private void siftUp(int position) {
+        int[] heap = scratch.heap;
+        long[] keys = scratch.heapKeys;
+        int[] positions = scratch.heapPositions;
+        int cell = heap[position];
+        long cellKey = keys[position];
+
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            if (keys[parentPosition] <= cellKey)
+                break;
+
+            heap[position] = heap[parentPosition];
+            keys[position] = keys[parentPosition];
+            positions[heap[position]] = position;
+            position = parentPosition;
+        }
+
+        heap[position] = cell;
+        keys[position] = cellKey;
+        positions[cell] = position;
+    }
+
+    private void siftDown(int position) {
+        int[] heap = scratch.heap;
+        long[] keys = scratch.heapKeys;
+        int[] positions = scratch.heapPositions;
+        int cell = heap[position];
+        long cellKey = keys[position];
+
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && keys[child + 1] < keys[child])
+                ++child;
+            if (keys[child] >= cellKey)
+                break;
+
+            heap[position] = heap[child];
+            keys[position] = keys[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+
+        heap[position] = cell;
+        keys[position] = cellKey;
+        positions[cell] = position;
+    }
+}
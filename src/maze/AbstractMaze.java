@@ -0,0 +1,91 @@
+package maze;
+
+import metrics.MazeMetrics;
+
+/**
+ * Base of the mazes that only have to say what is in a cell. Neighbours and
+ * empty cells are found through {@link #getBlockAt(int, int)}, subclasses with
+ * a faster way to scan their cells override the search methods.
+ */
+abstract class AbstractMaze implements Maze {
+
+    @Override
+    public boolean isCorrect() {
+        long startTime = System.nanoTime();
+        boolean isPerfect = MazeValidator.isPerfect(this);
+        MazeMetrics.recordValidation(System.nanoTime() - startTime);
+
+        return isPerfect;
+    }
+
+    @Override
+    public MazeBlock getUpBlock(int indexX, int indexY) {
+        return getBlockAt(indexX - 1, indexY);
+    }
+
+    @Override
+    public MazeBlock getDownBlock(int indexX, int indexY) {
+        return getBlockAt(indexX + 1, indexY);
+    }
+
+    @Override
+    public MazeBlock getRightBlock(int indexX, int indexY) {
+        return getBlockAt(indexX, indexY + 1);
+    }
+
+    @Override
+    public MazeBlock getLeftBlock(int indexX, int indexY) {
+        return getBlockAt(indexX, indexY - 1);
+    }
+
+    @Override
+    public Point getFirstEmptyPoint() {
+        return findEmptyPointFrom(0, 0);
+    }
+
+    @Override
+    public Point getNextEmptyPoint(Point p) {
+        return findEmptyPointFrom(p.x, p.y + 1);
+    }
+
+    @Override
+    public Point getLastEmptyPoint() {
+        return findEmptyPointBackFrom(getHeight() - 1, getWidth() - 1);
+    }
+
+    @Override
+    public Point getPreviousEmptyPoint(Point p) {
+        return findEmptyPointBackFrom(p.x, p.y - 1);
+    }
+
+    /**
+     * @return the first empty cell at or after the given one in row-major order
+     */
+    Point findEmptyPointFrom(int indexX, int indexY) {
+        int rows = getHeight();
+        int columns = getWidth();
+        for (int i = indexX; i < rows; i++, indexY = 0) {
+            for (int j = indexY; j < columns; j++) {
+                if (getBlockAt(i, j) == MazeBlock.EMPTY)
+                    return new Point(i, j);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the last empty cell at or before the given one in row-major order
+     */
+    Point findEmptyPointBackFrom(int indexX, int indexY) {
+        int columns = getWidth();
+        for (int i = indexX; i >= 0; i--, indexY = columns - 1) {
+            for (int j = indexY; j >= 0; j--) {
+                if (getBlockAt(i, j) == MazeBlock.EMPTY)
+                    return new Point(i, j);
+            }
+        }
+
+        return null;
+    }
+}
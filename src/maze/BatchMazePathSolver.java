@@ -0,0 +1,91 @@
+package maze;
+
+import settings.Settings;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves many path queries against one maze in parallel on a {@link ForkJoinPool}.
+ * Every query is solved by the implementation configured for {@link MazePathFactory},
+ * whose constructor is looked up once per batch. The solvers take their buffers
+ * from {@link SearchScratch}, so every worker thread reuses its own scratch arrays
+ * across the queries it runs. The maze is only read and must not be changed while
+ * a batch is running.
+ */
+public class BatchMazePathSolver {
+    private static final int QUERIES_PER_TASK = 16;
+
+    private final ForkJoinPool pool;
+
+    public BatchMazePathSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchMazePathSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param endpoints four numbers per query: startX, startY, finishX, finishY
+     * @return paths in the order of the queries
+     */
+    public MazePath[] solveAll(Maze maze, int[] endpoints) {
+        return solveAll(Settings.getMazePathImplementationClassName(), maze, endpoints);
+    }
+
+    /**
+     * If a query fails its exception is thrown from here and the rest of the
+     * batch is abandoned.
+     *
+     * @param implementationClassName name of a MazePath class with a (Maze, int, int, int, int) constructor
+     * @param endpoints               four numbers per query: startX, startY, finishX, finishY
+     * @return paths in the order of the queries
+     */
+    public MazePath[] solveAll(String implementationClassName, Maze maze, int[] endpoints) {
+        if (endpoints.length % 4 != 0)
+            throw new IllegalArgumentException("Every query must have four coordinates");
+
+        Constructor<? extends MazePath> constructor = MazePathFactory.getConstructor(implementationClassName);
+        MazePath[] paths = new MazePath[endpoints.length / 4];
+        pool.invoke(new SolveTask(constructor, maze, endpoints, paths, 0, paths.length));
+
+        return paths;
+    }
+
+    private static class SolveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Constructor<? extends MazePath> constructor;
+        private final Maze maze;
+        private final int[] endpoints;
+        private final MazePath[] paths;
+        private final int from;
+        private final int to;
+
+        private SolveTask(Constructor<? extends MazePath> constructor, Maze maze, int[] endpoints,
+                          MazePath[] paths, int from, int to) {
+            this.constructor = constructor;
+            this.maze = maze;
+            this.endpoints = endpoints;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= QUERIES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    paths[i] = MazePathFactory.getMazePath(constructor, maze, endpoints[i * 4],
+                            endpoints[i * 4 + 1], endpoints[i * 4 + 2], endpoints[i * 4 + 3]);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SolveTask(constructor, maze, endpoints, paths, from, middle),
+                        new SolveTask(constructor, maze, endpoints, paths, middle, to));
+            }
+        }
+    }
+}
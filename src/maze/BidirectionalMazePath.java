@@ -0,0 +1,176 @@
+package maze;
+
+import java.util.List;
+
+/**
+ * Path finder that runs breadth-first search from both ends at once.
+ * The forward and the backward frontier expand one whole level in turn. When
+ * they touch, the shortest of the connecting edges found in that level joins the
+ * two halves, which are rebuilt from the parents of each side. Both queues share
+ * one buffer: the forward one grows from its start, the backward one from its end.
+ */
+public class BidirectionalMazePath implements MazePath {
+    private final boolean isPathExists;
+    private CompactPath path;
+    private int expandedNodeCount = 0;
+
+    public BidirectionalMazePath(Maze maze, int startX, int startY, int finishX, int finishY) {
+        isPathExists = generate(maze, startX, startY, finishX, finishY, SearchScratch.forCurrentThread());
+    }
+
+    @Override
+    public boolean isExist() {
+        return isPathExists;
+    }
+
+    @Override
+    public CompactPath getPath() {
+        return path;
+    }
+
+    @Override
+    public List<Point> getPathList() {
+        return path.asList();
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    private boolean generate(Maze maze, int startX, int startY, int finishX, int finishY, SearchScratch scratch) {
+        int cells = SearchScratch.getCellCount(maze);
+        path = CompactPath.empty(maze.getWidth());
+        if (maze.getBlockAt(startX, startY) == MazeBlock.WALL || maze.getBlockAt(finishX, finishY) == MazeBlock.WALL)
+            return false;
+
+        if (startX == finishX && startY == finishY) {
+            path = new CompactPath(maze.getWidth(), new int[]{startX * maze.getWidth() + startY});
+            return true;
+        }
+
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+
+        int forwardStamp = scratch.begin(cells);
+        int backwardStamp = scratch.nextStamp();
+        scratch.ensureDistanceCapacity(cells);
+        int[] marks = scratch.marks;
+        int[] parents = scratch.parents;
+        int[] distances = scratch.distances;
+        int[] queue = scratch.queue;
+
+        int start = startX * width + startY;
+        int finish = finishX * width + finishY;
+
+        marks[start] = forwardStamp;
+        parents[start] = start;
+        distances[start] = 0;
+        queue[0] = start;
+        int forwardHead = 0;
+        int forwardTail = 1;
+
+        marks[finish] = backwardStamp;
+        parents[finish] = finish;
+        distances[finish] = 0;
+        queue[cells - 1] = finish;
+        int backwardHead = 0;
+        int backwardTail = 1;
+
+        int bestLength = Integer.MAX_VALUE;
+        int forwardMeeting = -1;
+        int backwardMeeting = -1;
+        boolean isForwardTurn = true;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            int ownStamp = isForwardTurn ? forwardStamp : backwardStamp;
+            int otherStamp = isForwardTurn ? backwardStamp : forwardStamp;
+            int head = isForwardTurn ? forwardHead : backwardHead;
+            int tail = isForwardTurn ? forwardTail : backwardTail;
+            int levelEnd = tail;
+
+            while (head < levelEnd) {
+                int cell = isForwardTurn ? queue[head] : queue[cells - 1 - head];
+                ++head;
+                ++expandedNodeCount;
+
+                int x = cell / width;
+                int y = cell - x * width;
+
+                for (int k = 0; k < 4; k++) {
+                    int next;
+                    if (k == 0) {
+                        if (x == 0 || maze.getBlockAt(x - 1, y) == MazeBlock.WALL)
+                            continue;
+                        next = cell - width;
+                    } else if (k == 1) {
+                        if (x == height - 1 || maze.getBlockAt(x + 1, y) == MazeBlock.WALL)
+                            continue;
+                        next = cell + width;
+                    } else if (k == 2) {
+                        if (y == 0 || maze.getBlockAt(x, y - 1) == MazeBlock.WALL)
+                            continue;
+                        next = cell - 1;
+                    } else {
+                        if (y == width - 1 || maze.getBlockAt(x, y + 1) == MazeBlock.WALL)
+                            continue;
+                        next = cell + 1;
+                    }
+
+                    if (marks[next] == ownStamp)
+                        continue;
+
+                    if (marks[next] == otherStamp) {//the frontiers met
+                        int length = distances[cell] + 1 + distances[next];
+                        if (length < bestLength) {
+                            bestLength = length;
+                            forwardMeeting = isForwardTurn ? cell : next;
+                            backwardMeeting = isForwardTurn ? next : cell;
+                        }
+                        continue;
+                    }
+
+                    marks[next] = ownStamp;
+                    parents[next] = cell;
+                    distances[next] = distances[cell] + 1;
+                    if (isForwardTurn)
+                        queue[tail] = next;
+                    else
+                        queue[cells - 1 - tail] = next;
+                    ++tail;
+                }
+            }
+
+            if (isForwardTurn) {
+                forwardHead = head;
+                forwardTail = tail;
+            } else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
+
+            if (bestLength != Integer.MAX_VALUE)
+                break;
+            isForwardTurn = !isForwardTurn;
+        }
+
+        if (bestLength == Integer.MAX_VALUE)
+            return false;
+
+        int forwardLength = distances[forwardMeeting] + 1;
+        int[] pathCells = new int[forwardLength + distances[backwardMeeting] + 1];
+
+        int i = forwardLength;
+        for (int cell = forwardMeeting; cell != start; cell = parents[cell])
+            pathCells[--i] = cell;
+        pathCells[0] = start;
+
+        i = forwardLength;
+        for (int cell = backwardMeeting; cell != finish; cell = parents[cell])
+            pathCells[i++] = cell;
+        pathCells[i] = finish;
+
+        path = new CompactPath(width, pathCells);
+        return true;
+    }
+}
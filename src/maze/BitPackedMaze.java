@@ -0,0 +1,192 @@
+package maze;
+
+/**
+ * Maze that keeps one bit per cell in a long[] wall bitmap.
+ * Every row starts at a word boundary, so row x occupies the words
+ * [x * wordsPerRow, (x + 1) * wordsPerRow). A set bit is a wall. The padding
+ * bits after the last column of a row are always set. Empty cells are looked
+ * up through an {@link EmptyCellIndex}. The generators build it when a maze is
+ * done, and an unchanged maze builds it on the first lookup. Changing a cell
+ * drops the index, and the lookups then scan rows until
+ * {@link EmptyCellIndex#forMaze} builds it again, so edits mixed with lookups
+ * do not rebuild it every time.
+ */
+class BitPackedMaze extends AbstractMaze implements WallBitmap {
+    private final int rows;
+    private final int columns;
+    final int wordsPerRow;
+    final long[] walls;
+    private EmptyCellIndex emptyCellIndex;
+    private boolean isChanged;
+
+    /**
+     * Creates a maze of the given size where every cell is empty.
+     */
+    BitPackedMaze(int rows, int columns) {
+        if (rows < 0 || columns < 0)
+            throw new IllegalArgumentException("Maze size must not be negative");
+
+        this.rows = rows;
+        this.columns = columns;
+        wordsPerRow = (columns + 63) >>> 6;
+
+        long words = (long) rows * wordsPerRow;
+        if (words > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze is too big");
+        walls = new long[(int) words];
+
+        if ((columns & 63) != 0) {
+            long padding = -1L << columns;
+            for (int i = 0; i < rows; i++) {
+                walls[i * wordsPerRow + wordsPerRow - 1] = padding;
+            }
+        }
+    }
+
+    /**
+     * Creates a bit-packed copy of the given maze.
+     */
+    BitPackedMaze(Maze maze) {
+        this(maze.getHeight(), maze.getWidth());
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                if (maze.getBlockAt(i, j) == MazeBlock.WALL)
+                    walls[i * wordsPerRow + (j >>> 6)] |= 1L << j;
+            }
+        }
+    }
+
+    final boolean isWall(int indexX, int indexY) {
+        return (walls[indexX * wordsPerRow + (indexY >>> 6)] & (1L << indexY)) != 0;
+    }
+
+    final void setBlockAt(int indexX, int indexY, MazeBlock block) {
+        if (indexY < 0 || indexY >= columns)
+            throw new IndexOutOfBoundsException("Column " + indexY + " is out of the maze");
+
+        int word = indexX * wordsPerRow + (indexY >>> 6);
+        if (block == MazeBlock.WALL)
+            walls[word] |= 1L << indexY;
+        else
+            walls[word] &= ~(1L << indexY);
+        emptyCellIndex = null;
+        isChanged = true;
+    }
+
+    /**
+     * Replaces a whole row with the given wall words, laid out as the rows of this bitmap.
+     */
+    final void setRow(int indexX, long[] rowWalls) {
+        System.arraycopy(rowWalls, 0, walls, indexX * wordsPerRow, wordsPerRow);
+        emptyCellIndex = null;
+        isChanged = true;
+    }
+
+    /**
+     * @return index of the current cells, built if a cell has changed since the last call
+     */
+    final EmptyCellIndex getEmptyCellIndex() {
+        EmptyCellIndex index = emptyCellIndex;
+        if (index == null) {
+            index = new EmptyCellIndex(this, rows, columns);
+            emptyCellIndex = index;
+            isChanged = false;
+        }
+
+        return index;
+    }
+
+    @Override
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    @Override
+    public long getWordCount() {
+        return walls.length;
+    }
+
+    @Override
+    public long getWord(long index) {
+        return walls[(int) index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder((columns + 1) * rows);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                if (isWall(i, j))
+                    sb.append("X");
+                else
+                    sb.append("_");
+            }
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public int getWidth() {
+        return columns;
+    }
+
+    @Override
+    public int getHeight() {
+        return rows;
+    }
+
+    @Override
+    public MazeBlock getBlockAt(int indexX, int indexY) {
+        if (indexY < 0 || indexY >= columns)
+            throw new IndexOutOfBoundsException("Column " + indexY + " is out of the maze");
+
+        return isWall(indexX, indexY) ? MazeBlock.WALL : MazeBlock.EMPTY;
+    }
+
+    @Override
+    Point findEmptyPointFrom(int indexX, int indexY) {
+        if (emptyCellIndex != null || !isChanged)
+            return getEmptyCellIndex().findFrom(indexX, indexY);
+
+        for (int i = indexX; i < rows; i++, indexY = 0) {
+            if (indexY >= columns)
+                continue;
+
+            int rowStart = i * wordsPerRow;
+            int word = indexY >>> 6;
+            long empty = ~walls[rowStart + word] & (-1L << indexY);
+            while (empty == 0 && ++word < wordsPerRow)
+                empty = ~walls[rowStart + word];
+
+            if (empty != 0)
+                return new Point(i, (word << 6) + Long.numberOfTrailingZeros(empty));
+        }
+
+        return null;
+    }
+
+    @Override
+    Point findEmptyPointBackFrom(int indexX, int indexY) {
+        if (emptyCellIndex != null || !isChanged)
+            return getEmptyCellIndex().findBackFrom(indexX, indexY);
+
+        for (int i = indexX; i >= 0; i--, indexY = columns - 1) {
+            if (indexY < 0)
+                continue;
+
+            int rowStart = i * wordsPerRow;
+            int word = indexY >>> 6;
+            long empty = ~walls[rowStart + word] & (-1L >>> (63 - (indexY & 63)));
+            while (empty == 0 && --word >= 0)
+                empty = ~walls[rowStart + word];
+
+            if (empty != 0)
+                return new Point(i, (word << 6) + 63 - Long.numberOfLeadingZeros(empty));
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package maze;
+
+import java.util.List;
+
+/**
+ * Path finder that runs breadth-first search with an explicit frontier queue.
+ * Every empty cell is visited at most once and the search stops as soon as the
+ * finish cell is reached. The buffers are taken from {@link SearchScratch},
+ * so repeated solves on the same thread do not allocate grid-sized arrays.
+ */
+public class BreadthFirstMazePath implements MazePath {
+    private final boolean isPathExists;
+    private CompactPath path;
+    private int expandedNodeCount = 0;
+
+    public BreadthFirstMazePath(Maze maze, int startX, int startY, int finishX, int finishY) {
+        isPathExists = generate(maze, startX, startY, finishX, finishY, SearchScratch.forCurrentThread());
+    }
+
+    @Override
+    public boolean isExist() {
+        return isPathExists;
+    }
+
+    @Override
+    public CompactPath getPath() {
+        return path;
+    }
+
+    @Override
+    public List<Point> getPathList() {
+        return path.asList();
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    private boolean generate(Maze maze, int startX, int startY, int finishX, int finishY, SearchScratch scratch) {
+        int cells = SearchScratch.getCellCount(maze);
+        path = CompactPath.empty(maze.getWidth());
+        if (maze.getBlockAt(startX, startY) == MazeBlock.WALL || maze.getBlockAt(finishX, finishY) == MazeBlock.WALL)
+            return false;
+
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+
+        int stamp = scratch.begin(cells);
+        int[] marks = scratch.marks;
+        int[] parents = scratch.parents;
+        int[] queue = scratch.queue;
+
+        int start = startX * width + startY;
+        int finish = finishX * width + finishY;
+
+        marks[start] = stamp;
+        parents[start] = start;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail && marks[finish] != stamp) {
+            int cell = queue[head++];
+            ++expandedNodeCount;
+            int x = cell / width;
+            int y = cell - x * width;
+
+            int next = cell - width;
+            if (x > 0 && marks[next] != stamp && maze.getBlockAt(x - 1, y) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+
+            next = cell + width;
+            if (x < height - 1 && marks[next] != stamp && maze.getBlockAt(x + 1, y) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+
+            next = cell - 1;
+            if (y > 0 && marks[next] != stamp && maze.getBlockAt(x, y - 1) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+
+            next = cell + 1;
+            if (y < width - 1 && marks[next] != stamp && maze.getBlockAt(x, y + 1) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+        }
+
+        if (marks[finish] != stamp)
+            return false;
+
+        path = CompactPath.fromParents(width, parents, start, finish);
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package maze;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Path stored as a packed array of flat cell indices x * width + y, from the start
+ * to the finish. Cells can be read by position or passed to a {@link MazeCellVisitor}
+ * without allocating; {@link #asList()} gives a random access list view for the
+ * code that works with {@link Point}s. The indices are ints, so the solvers that
+ * make a path reject a maze of more than {@link Integer#MAX_VALUE} cells.
+ */
+public class CompactPath {
+    private final int width;
+    private final int[] cells;
+    private final List<Point> listView = new PointListView();
+
+    CompactPath(int width, int[] cells) {
+        this.width = width;
+        this.cells = cells;
+    }
+
+    /**
+     * @return empty path, used when there is no path
+     */
+    static CompactPath empty(int width) {
+        return new CompactPath(width, new int[0]);
+    }
+
+    /**
+     * Builds the path by following the parents from the finish back to the start.
+     */
+    static CompactPath fromParents(int width, int[] parents, int start, int finish) {
+        int length = 1;
+        for (int cell = finish; cell != start; cell = parents[cell])
+            ++length;
+
+        int[] cells = new int[length];
+        for (int cell = finish; cell != start; cell = parents[cell])
+            cells[--length] = cell;
+        cells[0] = start;
+
+        return new CompactPath(width, cells);
+    }
+
+    /**
+     * @return number of cells in the path, both ends included
+     */
+    public int size() {
+        return cells.length;
+    }
+
+    public int getX(int position) {
+        return cells[position] / width;
+    }
+
+    public int getY(int position) {
+        return cells[position] % width;
+    }
+
+    /**
+     * Passes every cell to the visitor from the start to the finish.
+     */
+    public void forEach(MazeCellVisitor visitor) {
+        for (int cell : cells)
+            visitor.visitCell(cell / width, cell % width);
+    }
+
+    /**
+     * @return read-only list view that creates the points on access
+     */
+    public List<Point> asList() {
+        return listView;
+    }
+
+    private class PointListView extends AbstractList<Point> implements RandomAccess {
+        @Override
+        public Point get(int index) {
+            return new Point(getX(index), getY(index));
+        }
+
+        @Override
+        public int size() {
+            return cells.length;
+        }
+    }
+}
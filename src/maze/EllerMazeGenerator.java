@@ -0,0 +1,27 @@
+package maze;
+
+import settings.Settings;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generator of {@link EllerMaze}. The cycle removal of EllerMaze turns every maze
+ * into a spanning tree, so the result is correct without a validation pass and
+ * depends on the seed only.
+ */
+public class EllerMazeGenerator implements MazeGenerator {
+    @Override
+    public String getName() {
+        return "eller";
+    }
+
+    @Override
+    public Maze generate(int width, int height, long seed, Map<String, String> options) {
+        int wallPercentage = MazeGenerators.getIntOption(options, WALL_PERCENTAGE_OPTION, Settings.getWallPercentage());
+        Maze maze = new EllerMaze(height, width, wallPercentage, new Random(seed));
+        assert MazeValidator.isPerfect(maze);
+
+        return maze;
+    }
+}
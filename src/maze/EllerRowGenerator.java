@@ -0,0 +1,262 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Eller's algorithm that produces the maze row by row.
+ * Only the properties of the previous row of areas are kept, so memory use
+ * depends on the width alone and the number of rows is not limited. Every
+ * finished row of cells is pushed to a {@link MazeRowSink}: an area row
+ * becomes a row of areas and right passages followed by a row of down
+ * passages and corner walls; the last area row has no row below it.
+ * <p>
+ * Sets are tracked per column. Set identifiers are recycled through a free
+ * list, so they never exceed the number of columns, and the members of every
+ * set are linked in a circular list. Uniting two sets relabels the smaller
+ * one, and a cell leaves its set in constant time, so a row costs
+ * O(width) apart from the relabelling, which is O(width log width) in the
+ * worst case.
+ */
+public class EllerRowGenerator {
+    private static final int NO_SET = -1;
+
+    private final int blockAreaColumns;
+    private final int wallPercentage;
+    private final Random rand;
+    private final long[] rowWalls;
+
+    private final int[] cellSets;
+    private final int[] nextCells;
+    private final int[] previousCells;
+    private final int[] setSizes;
+    private final int[] freeSets;
+    private int freeSetsCount;
+
+    private final int[] setCellsLeft;
+    private final boolean[] setOpenedFlags;
+
+    private final boolean[] rightSideWallFlags;
+    private final boolean[] downSideWallFlags;
+    private long rowIndex;
+
+    public EllerRowGenerator(int blockAreaColumns, int wallPercentage, Random rand) {
+        if (blockAreaColumns <= 0)
+            throw new IllegalArgumentException("Maze must have at least one column");
+
+        this.blockAreaColumns = blockAreaColumns;
+        this.wallPercentage = wallPercentage;
+        this.rand = rand;
+        rowWalls = new long[(getColumns() + 63) >>> 6];
+
+        cellSets = new int[blockAreaColumns];
+        nextCells = new int[blockAreaColumns];
+        previousCells = new int[blockAreaColumns];
+        setSizes = new int[blockAreaColumns];
+        freeSets = new int[blockAreaColumns];
+        setCellsLeft = new int[blockAreaColumns];
+        setOpenedFlags = new boolean[blockAreaColumns];
+        rightSideWallFlags = new boolean[blockAreaColumns];
+        downSideWallFlags = new boolean[blockAreaColumns];
+
+        startNewMaze();
+    }
+
+    /**
+     * @return number of cells in every emitted row
+     */
+    public int getColumns() {
+        return blockAreaColumns * 2 - 1;
+    }
+
+    /**
+     * @return index of the next row of cells to be emitted
+     */
+    public long getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * Emits a whole maze of the given number of area rows, that is
+     * blockAreaRows * 2 - 1 rows of cells.
+     */
+    public void generate(long blockAreaRows, MazeRowSink sink) {
+        if (blockAreaRows <= 0)
+            throw new IllegalArgumentException("Maze must have at least one row");
+
+        for (long i = 0; i < blockAreaRows - 1; i++) {
+            emitNextRow(sink);
+        }
+        emitLastRow(sink);
+    }
+
+    /**
+     * Generates one more area row and emits it together with the row of down
+     * passages under it. Can be called any number of times for an endless maze.
+     */
+    public void emitNextRow(MazeRowSink sink) {
+        prepareRowSets();
+        generateRightSideWalls();
+        generateDownSideWalls();
+
+        emitAreaRow(sink);
+        emitDownPassageRow(sink);
+    }
+
+    /**
+     * Generates the closing area row, which joins all the remaining sets, and
+     * emits it. After this the generator starts a new maze.
+     */
+    public void emitLastRow(MazeRowSink sink) {
+        prepareRowSets();
+        for (int i = 0; i < blockAreaColumns - 1; i++) {
+            rightSideWallFlags[i] = cellSets[i] == cellSets[i + 1];
+            if (!rightSideWallFlags[i])
+                uniteSets(i, i + 1);
+        }
+
+        emitAreaRow(sink);
+
+        startNewMaze();
+    }
+
+    private void startNewMaze() {
+        Arrays.fill(cellSets, NO_SET);
+        Arrays.fill(downSideWallFlags, false);
+        for (int i = 0; i < blockAreaColumns; i++) {
+            freeSets[i] = blockAreaColumns - 1 - i;
+        }
+        freeSetsCount = blockAreaColumns;
+        rowIndex = 0;
+    }
+
+    /**
+     * Takes the cells under a down side wall out of their sets and puts every
+     * cell that is not in any set into a new one.
+     */
+    private void prepareRowSets() {
+        for (int i = 0; i < blockAreaColumns; i++) {
+            if (downSideWallFlags[i] && cellSets[i] != NO_SET)
+                leaveSet(i);
+        }
+
+        for (int i = 0; i < blockAreaColumns; i++) {
+            if (cellSets[i] == NO_SET) {
+                int set = freeSets[--freeSetsCount];
+                cellSets[i] = set;
+                setSizes[set] = 1;
+                nextCells[i] = i;
+                previousCells[i] = i;
+            }
+        }
+    }
+
+    private void generateRightSideWalls() {
+        for (int i = 0; i < blockAreaColumns - 1; i++) {
+            if (cellSets[i] == cellSets[i + 1])//if in the same set
+                rightSideWallFlags[i] = true;
+            else {
+                rightSideWallFlags[i] = rand.nextInt(100) < wallPercentage;
+                if (!rightSideWallFlags[i])
+                    uniteSets(i, i + 1);
+            }
+        }
+        rightSideWallFlags[blockAreaColumns - 1] = true;
+    }
+
+    /**
+     * Puts random down side walls, leaving at least one passage for every set.
+     */
+    private void generateDownSideWalls() {
+        for (int i = 0; i < blockAreaColumns; i++) {
+            setCellsLeft[cellSets[i]] = setSizes[cellSets[i]];
+            setOpenedFlags[cellSets[i]] = false;
+        }
+
+        for (int i = 0; i < blockAreaColumns; i++) {
+            int set = cellSets[i];
+            boolean isWall = rand.nextInt(100) < wallPercentage;
+            if (--setCellsLeft[set] == 0 && !setOpenedFlags[set])//the last chance for this set
+                isWall = false;
+
+            downSideWallFlags[i] = isWall;
+            if (!isWall)
+                setOpenedFlags[set] = true;
+        }
+    }
+
+    private void leaveSet(int cell) {
+        int set = cellSets[cell];
+        cellSets[cell] = NO_SET;
+
+        if (--setSizes[set] == 0) {
+            freeSets[freeSetsCount++] = set;
+        } else {
+            nextCells[previousCells[cell]] = nextCells[cell];
+            previousCells[nextCells[cell]] = previousCells[cell];
+        }
+    }
+
+    /**
+     * Unites the sets of the two cells, relabelling the smaller set.
+     */
+    private void uniteSets(int firstCell, int secondCell) {
+        int keptSet = cellSets[firstCell];
+        int droppedSet = cellSets[secondCell];
+        if (setSizes[droppedSet] > setSizes[keptSet]) {
+            keptSet = droppedSet;
+            droppedSet = cellSets[firstCell];
+        }
+
+        int cell = cellSets[firstCell] == droppedSet ? firstCell : secondCell;
+        int end = cell;
+        do {
+            cellSets[cell] = keptSet;
+            cell = nextCells[cell];
+        } while (cell != end);
+
+        int firstNext = nextCells[firstCell];
+        int secondNext = nextCells[secondCell];
+        nextCells[firstCell] = secondNext;
+        previousCells[secondNext] = firstCell;
+        nextCells[secondCell] = firstNext;
+        previousCells[firstNext] = secondCell;
+
+        setSizes[keptSet] += setSizes[droppedSet];
+        setSizes[droppedSet] = 0;
+        freeSets[freeSetsCount++] = droppedSet;
+    }
+
+    private void emitAreaRow(MazeRowSink sink) {
+        clearRowWalls();
+        for (int j = 0; j < blockAreaColumns - 1; j++) {
+            if (rightSideWallFlags[j])
+                setRowWall(j * 2 + 1);
+        }
+
+        sink.acceptRow(rowIndex++, rowWalls);
+    }
+
+    private void emitDownPassageRow(MazeRowSink sink) {
+        clearRowWalls();
+        for (int j = 0; j < blockAreaColumns; j++) {
+            if (downSideWallFlags[j])
+                setRowWall(j * 2);
+            if (j != blockAreaColumns - 1)
+                setRowWall(j * 2 + 1);
+        }
+
+        sink.acceptRow(rowIndex++, rowWalls);
+    }
+
+    private void clearRowWalls() {
+        Arrays.fill(rowWalls, 0);
+        int columns = getColumns();
+        if ((columns & 63) != 0)
+            rowWalls[rowWalls.length - 1] = -1L << columns;
+    }
+
+    private void setRowWall(int column) {
+        rowWalls[column >>> 6] |= 1L << column;
+    }
+}
@@ -0,0 +1,289 @@
+package maze;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+
+/**
+ * Rank/select index over the wall bitmap of a maze. Cells are numbered in
+ * row-major order, so the k-th empty cell, the number of empty cells before a
+ * cell and the empty cells around it are found without scanning rows.
+ * <p>
+ * The bitmap is shared, not copied. Every block of 8 words keeps the number of
+ * empty cells before it, so a rank costs at most 8 popcounts. The empty cells
+ * are split into ranges of 1024. A range that spans fewer than 1024 blocks keeps
+ * the block of its first cell, so a select binary searches at most 1024 blocks,
+ * counts inside one block and picks the bit with a broadword select in a word.
+ * A longer range is sparse and keeps the positions of all its cells. Every query
+ * therefore takes a bounded number of steps whatever the size of the maze. The
+ * index takes at most about a quarter of the bitmap size and assumes the maze is
+ * not changed after it has been built.
+ */
+public class EmptyCellIndex {
+    private static final int BLOCK_SHIFT = 3;
+    private static final int BLOCK_WORDS = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_BITS_SHIFT = BLOCK_SHIFT + 6;
+    private static final int RANGE_SHIFT = 10;
+    private static final int RANGE_SIZE = 1 << RANGE_SHIFT;
+    private static final int MAX_DENSE_BLOCKS = 1024;
+    private static final long MAX_DENSE_SPAN = (long) MAX_DENSE_BLOCKS << BLOCK_BITS_SHIFT;
+    private static final long ONES_STEP_4 = 0x1111111111111111L;
+    private static final long ONES_STEP_8 = 0x0101010101010101L;
+    private static final long MSBS_STEP_8 = 0x80L * ONES_STEP_8;
+    private static final byte[] SELECT_IN_BYTE = new byte[256 * 8];
+    private static final Map<Maze, EmptyCellIndex> COPIED_INDEXES = new WeakHashMap<Maze, EmptyCellIndex>();
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            int rank = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                if ((b & (1 << bit)) != 0)
+                    SELECT_IN_BYTE[b | rank++ << 8] = (byte) bit;
+            }
+        }
+    }
+
+    private final WallBitmap bitmap;
+    private final int rows;
+    private final int columns;
+    private final int wordsPerRow;
+    private final long wordCount;
+    private final long[] blockRanks;
+    private final int[] rangeBlocks;
+    private final long[][] sparsePositions;
+
+    /**
+     * Builds the index in O(words) over the current bitmap of the maze.
+     */
+    EmptyCellIndex(WallBitmap bitmap, int rows, int columns) {
+        this.bitmap = bitmap;
+        this.rows = rows;
+        this.columns = columns;
+        wordsPerRow = bitmap.getWordsPerRow();
+        wordCount = bitmap.getWordCount();
+
+        long blocksCount = (wordCount + BLOCK_WORDS - 1) >>> BLOCK_SHIFT;
+        if (blocksCount >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze is too big");
+
+        int blocks = (int) blocksCount;
+        blockRanks = new long[blocks + 1];
+        long rank = 0;
+        for (int block = 0; block < blocks; block++) {
+            blockRanks[block] = rank;
+            long end = Math.min(wordCount, (long) (block + 1) << BLOCK_SHIFT);
+            for (long word = (long) block << BLOCK_SHIFT; word < end; word++) {
+                rank += Long.bitCount(~bitmap.getWord(word));
+            }
+        }
+        blockRanks[blocks] = rank;
+
+        int ranges = (int) ((rank + RANGE_SIZE - 1) >>> RANGE_SHIFT);
+        rangeBlocks = new int[ranges];
+        sparsePositions = new long[ranges][];
+        int firstBlock = 0;
+        int lastBlock = 0;
+        for (int range = 0; range < ranges; range++) {
+            long firstK = (long) range << RANGE_SHIFT;
+            long lastK = Math.min(rank, firstK + RANGE_SIZE) - 1;
+            while (blockRanks[firstBlock + 1] <= firstK)
+                ++firstBlock;
+            while (blockRanks[lastBlock + 1] <= lastK)
+                ++lastBlock;
+
+            rangeBlocks[range] = firstBlock;
+            long first = selectInBlock(firstK, firstBlock);
+            if (selectInBlock(lastK, lastBlock) - first >= MAX_DENSE_SPAN)
+                sparsePositions[range] = collectPositions(first, (int) (lastK - firstK + 1));
+        }
+    }
+
+    /**
+     * @return index of the given maze; a bit-packed or file-mapped maze keeps its
+     * own index over its bitmap, any other maze is copied once to a heap bitmap of
+     * one bit per cell and indexed while it is reachable
+     */
+    public static EmptyCellIndex forMaze(Maze maze) {
+        if (maze instanceof BitPackedMaze)
+            return ((BitPackedMaze) maze).getEmptyCellIndex();
+        if (maze instanceof FileMappedMaze)
+            return ((FileMappedMaze) maze).getEmptyCellIndex();
+
+        synchronized (COPIED_INDEXES) {
+            EmptyCellIndex index = COPIED_INDEXES.get(maze);
+            if (index == null) {
+                index = new BitPackedMaze(maze).getEmptyCellIndex();
+                COPIED_INDEXES.put(maze, index);
+            }
+
+            return index;
+        }
+    }
+
+    public long getEmptyCellCount() {
+        return blockRanks[blockRanks.length - 1];
+    }
+
+    /**
+     * @return number of empty cells before the given one in row-major order
+     */
+    public long getRank(int indexX, int indexY) {
+        if (indexX < 0 || indexX >= rows || indexY < 0 || indexY >= columns)
+            throw new IndexOutOfBoundsException("Cell " + indexX + ", " + indexY + " is out of the maze");
+
+        return rank(toPosition(indexX, indexY));
+    }
+
+    /**
+     * @return the empty cell with the given number in row-major order, counting from 0
+     */
+    public Point getEmptyPoint(long k) {
+        if (k < 0 || k >= getEmptyCellCount())
+            throw new IndexOutOfBoundsException("Empty cell " + k + " is out of the maze");
+
+        return toPoint(select(k));
+    }
+
+    /**
+     * @return an empty cell chosen uniformly at random or null if there is none
+     */
+    public Point getRandomEmptyPoint(Random random) {
+        long count = getEmptyCellCount();
+        if (count == 0)
+            return null;
+
+        if (count <= Integer.MAX_VALUE)
+            return toPoint(select(random.nextInt((int) count)));
+
+        long limit = Long.MAX_VALUE - Long.MAX_VALUE % count;
+        long value;
+        do {
+            value = random.nextLong() >>> 1;
+        } while (value >= limit);
+
+        return toPoint(select(value % count));
+    }
+
+    /**
+     * @return the first empty cell at or after the given one in row-major order
+     */
+    Point findFrom(int indexX, int indexY) {
+        if (indexX >= rows)
+            return null;
+
+        long k = rank(Math.max(0, toPosition(indexX, indexY)));
+        return k < getEmptyCellCount() ? toPoint(select(k)) : null;
+    }
+
+    /**
+     * @return the last empty cell at or before the given one in row-major order
+     */
+    Point findBackFrom(int indexX, int indexY) {
+        if (indexX < 0)
+            return null;
+
+        long position = Math.min(wordCount << 6, toPosition(indexX, indexY) + 1);
+        long k = position <= 0 ? 0 : rank(position);
+        return k > 0 ? toPoint(select(k - 1)) : null;
+    }
+
+    private long toPosition(int indexX, int indexY) {
+        return ((long) indexX * wordsPerRow << 6) + indexY;
+    }
+
+    private Point toPoint(long position) {
+        long rowBits = (long) wordsPerRow << 6;
+        return new Point((int) (position / rowBits), (int) (position % rowBits));
+    }
+
+    /**
+     * @return number of empty cells before the given bit position
+     */
+    private long rank(long position) {
+        if (position >= wordCount << 6)
+            return getEmptyCellCount();
+
+        long word = position >>> 6;
+        long rank = blockRanks[(int) (word >>> BLOCK_SHIFT)];
+        for (long i = word & -BLOCK_WORDS; i < word; i++) {
+            rank += Long.bitCount(~bitmap.getWord(i));
+        }
+
+        return rank + Long.bitCount(~bitmap.getWord(word) & ~(-1L << position));
+    }
+
+    /**
+     * @return bit position of the k-th empty cell
+     */
+    private long select(long k) {
+        int range = (int) (k >>> RANGE_SHIFT);
+        long[] positions = sparsePositions[range];
+        if (positions != null)
+            return positions[(int) (k & (RANGE_SIZE - 1))];
+
+        int low = rangeBlocks[range];
+        int high = Math.min(low + MAX_DENSE_BLOCKS, blockRanks.length - 2);
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blockRanks[middle] <= k)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+
+        return selectInBlock(k, low);
+    }
+
+    /**
+     * @return bit position of the k-th empty cell, which is in the given block
+     */
+    private long selectInBlock(long k, int block) {
+        k -= blockRanks[block];
+        long word = (long) block << BLOCK_SHIFT;
+        long empty = ~bitmap.getWord(word);
+        for (int count = Long.bitCount(empty); count <= k; count = Long.bitCount(empty)) {
+            k -= count;
+            empty = ~bitmap.getWord(++word);
+        }
+
+        return (word << 6) + selectInWord(empty, (int) k);
+    }
+
+    /**
+     * @return positions of the given number of empty cells starting from the given one
+     */
+    private long[] collectPositions(long first, int count) {
+        long[] positions = new long[count];
+        long word = first >>> 6;
+        long empty = ~bitmap.getWord(word) & (-1L << first);
+        for (int i = 0; i < count; i++) {
+            while (empty == 0)
+                empty = ~bitmap.getWord(++word);
+
+            positions[i] = (word << 6) + Long.numberOfTrailingZeros(empty);
+            empty &= empty - 1;
+        }
+
+        return positions;
+    }
+
+    /**
+     * Broadword select from S. Vigna, "Broadword implementation of rank/select
+     * queries": the byte sums of the word locate the byte with the bit and a
+     * table locates the bit inside the byte.
+     *
+     * @return position of the set bit with the given rank, which must be less than the bit count
+     */
+    static int selectInWord(long word, int rank) {
+        long byteSums = word - ((word & 0xA * ONES_STEP_4) >>> 1);
+        byteSums = (byteSums & 3 * ONES_STEP_4) + ((byteSums >>> 2) & 3 * ONES_STEP_4);
+        byteSums = (byteSums + (byteSums >>> 4)) & 0x0F * ONES_STEP_8;
+        byteSums *= ONES_STEP_8;
+
+        long rankStep8 = rank * ONES_STEP_8;
+        int byteOffset = Long.bitCount(((rankStep8 | MSBS_STEP_8) - byteSums) & MSBS_STEP_8) << 3;
+        int byteRank = rank - (int) (((byteSums << 8) >>> byteOffset) & 0xFF);
+
+        return byteOffset + SELECT_IN_BYTE[(int) (word >>> byteOffset & 0xFF) | byteRank << 8];
+    }
+}
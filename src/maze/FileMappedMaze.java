@@ -0,0 +1,306 @@
+package maze;
+
+import metrics.MazeMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Maze whose cells live in a memory-mapped {@link MazeFile} grid, so it can be
+ * bigger than the heap and the OS page cache decides what is resident. The grid
+ * is mapped as a series of segments of up to 1 GiB and addressed with long
+ * offsets, so the number of cells is not limited by array indexing.
+ * {@link #isCorrect()} checks the maze row by row, but the solvers and the paths
+ * number cells with ints and reject a maze of more than
+ * {@link Integer#MAX_VALUE} cells.
+ * <p>
+ * A writable maze can be filled row by row as a {@link MazeRowSink}, for example
+ * by an {@link EllerRowGenerator} with blockAreaColumns = (columns + 1) / 2 that
+ * generates (rows + 1) / 2 rows of areas.
+ * <p>
+ * Empty cells are looked up through an {@link EmptyCellIndex} over the mapped
+ * grid, built on the first lookup while no cell has been changed. The index is
+ * kept on the heap and takes up to about a quarter of the grid size. Changing a
+ * cell, as filling a new maze row by row does, drops the index, and the lookups
+ * then scan rows until {@link EmptyCellIndex#forMaze} builds it again.
+ */
+public class FileMappedMaze extends AbstractMaze implements MazeRowSink {
+    private static final int SEGMENT_SHIFT = 30;
+
+    private final int rows;
+    private final int columns;
+    private final int wordsPerRow;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final MappedByteBuffer[] segments;
+    private EmptyCellIndex emptyCellIndex;
+    private boolean isChanged;
+
+    /**
+     * Maps the grid that starts at the given offset of the file.
+     */
+    FileMappedMaze(FileChannel channel, long offset, int rows, int columns, boolean isWritable) throws IOException {
+        this(channel, offset, rows, columns, isWritable, SEGMENT_SHIFT);
+    }
+
+    /**
+     * @param segmentShift log2 of the segment size, at least 3
+     */
+    FileMappedMaze(FileChannel channel, long offset, int rows, int columns, boolean isWritable, int segmentShift)
+            throws IOException {
+        checkSize(rows, columns);
+        this.rows = rows;
+        this.columns = columns;
+        this.segmentShift = segmentShift;
+        wordsPerRow = (columns + 63) >>> 6;
+        segmentMask = (1L << segmentShift) - 1;
+
+        long size = getGridSize(rows, columns);
+        long segmentsCount = (size + segmentMask) >>> segmentShift;
+        if (segmentsCount > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze is too big");
+
+        segments = new MappedByteBuffer[(int) segmentsCount];
+        FileChannel.MapMode mode = isWritable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << segmentShift;
+            segments[i] = channel.map(mode, offset + start, Math.min(segmentMask + 1, size - start));
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Creates a grid file of the given size where every cell is empty.
+     */
+    public static FileMappedMaze create(File file, int rows, int columns) throws IOException {
+        return create(file, rows, columns, SEGMENT_SHIFT);
+    }
+
+    static FileMappedMaze create(File file, int rows, int columns, int segmentShift) throws IOException {
+        checkSize(rows, columns);
+
+        FileMappedMaze maze;
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            channel.truncate(0);
+            randomAccessFile.setLength(MazeFile.HEADER_SIZE + getGridSize(rows, columns));
+            MazeFile.writeFully(channel,
+                    MazeFile.createHeader(MazeFile.Encoding.GRID, rows, columns, getGridSize(rows, columns), null));
+
+            maze = new FileMappedMaze(channel, MazeFile.HEADER_SIZE, rows, columns, true, segmentShift);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        if ((columns & 63) != 0) {
+            long padding = -1L << columns;
+            for (int i = 0; i < rows; i++) {
+                maze.setWord(i, maze.wordsPerRow - 1, padding);
+            }
+        }
+
+        return maze;
+    }
+
+    /**
+     * Maps an existing grid file for reading and writing.
+     */
+    public static FileMappedMaze open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            MazeFile.Header header = MazeFile.readHeader(channel, file);
+            if (header.encoding != MazeFile.Encoding.GRID)
+                throw new IOException("Maze file is not a grid: " + file);
+            if (channel.size() < MazeFile.HEADER_SIZE + getGridSize(header.rows, header.columns))
+                throw new IOException("Maze file is truncated: " + file);
+
+            return new FileMappedMaze(channel, MazeFile.HEADER_SIZE, header.rows, header.columns, true);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static void checkSize(int rows, int columns) {
+        if (rows < 0 || columns < 0)
+            throw new IllegalArgumentException("Maze size must not be negative");
+    }
+
+    /**
+     * @return number of bytes the grid of the given size takes
+     */
+    static long getGridSize(int rows, int columns) {
+        return (long) rows * ((columns + 63) >>> 6) * 8;
+    }
+
+    private long getWord(int indexX, int word) {
+        return getWord((long) indexX * wordsPerRow + word);
+    }
+
+    private long getWord(long index) {
+        long position = index << 3;
+        return segments[(int) (position >>> segmentShift)].getLong((int) (position & segmentMask));
+    }
+
+    private void setWord(int indexX, int word, long walls) {
+        long position = ((long) indexX * wordsPerRow + word) << 3;
+        segments[(int) (position >>> segmentShift)].putLong((int) (position & segmentMask), walls);
+    }
+
+    void setBlockAt(int indexX, int indexY, MazeBlock block) {
+        checkCell(indexX, indexY);
+
+        long walls = getWord(indexX, indexY >>> 6);
+        if (block == MazeBlock.WALL)
+            walls |= 1L << indexY;
+        else
+            walls &= ~(1L << indexY);
+        setWord(indexX, indexY >>> 6, walls);
+        emptyCellIndex = null;
+        isChanged = true;
+    }
+
+    /**
+     * Replaces a whole row with the given wall words, laid out as the rows of the grid.
+     */
+    @Override
+    public void acceptRow(long rowIndex, long[] walls) {
+        if (rowIndex < 0 || rowIndex >= rows)
+            throw new IndexOutOfBoundsException("Row " + rowIndex + " is out of the maze");
+        if (walls.length < wordsPerRow)
+            throw new IllegalArgumentException("Row must have " + wordsPerRow + " words");
+
+        for (int word = 0; word < wordsPerRow; word++) {
+            setWord((int) rowIndex, word, walls[word]);
+        }
+        emptyCellIndex = null;
+        isChanged = true;
+    }
+
+    /**
+     * @return view of the mapped grid as a wall bitmap
+     */
+    WallBitmap getWallBitmap() {
+        return new WallBitmap() {
+            @Override
+            public int getWordsPerRow() {
+                return wordsPerRow;
+            }
+
+            @Override
+            public long getWordCount() {
+                return (long) rows * wordsPerRow;
+            }
+
+            @Override
+            public long getWord(long index) {
+                return FileMappedMaze.this.getWord(index);
+            }
+        };
+    }
+
+    /**
+     * @return index of the current cells over the mapped grid, built if a cell has changed since the last call
+     */
+    EmptyCellIndex getEmptyCellIndex() {
+        EmptyCellIndex index = emptyCellIndex;
+        if (index == null) {
+            index = new EmptyCellIndex(getWallBitmap(), rows, columns);
+            emptyCellIndex = index;
+            isChanged = false;
+        }
+
+        return index;
+    }
+
+    /**
+     * Writes the changed cells to the file.
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    private void checkCell(int indexX, int indexY) {
+        if (indexX < 0 || indexX >= rows || indexY < 0 || indexY >= columns)
+            throw new IndexOutOfBoundsException("Cell " + indexX + ", " + indexY + " is out of the maze");
+    }
+
+    /**
+     * Checks the maze in one pass over the rows, which needs memory for a few rows
+     * only and works for any number of cells.
+     */
+    @Override
+    public boolean isCorrect() {
+        long startTime = System.nanoTime();
+        boolean isPerfect = MazeValidator.isPerfectByRows(this);
+        MazeMetrics.recordValidation(System.nanoTime() - startTime);
+
+        return isPerfect;
+    }
+
+    @Override
+    public int getWidth() {
+        return columns;
+    }
+
+    @Override
+    public int getHeight() {
+        return rows;
+    }
+
+    @Override
+    public MazeBlock getBlockAt(int indexX, int indexY) {
+        checkCell(indexX, indexY);
+
+        return (getWord(indexX, indexY >>> 6) & (1L << indexY)) != 0 ? MazeBlock.WALL : MazeBlock.EMPTY;
+    }
+
+    @Override
+    Point findEmptyPointFrom(int indexX, int indexY) {
+        if (emptyCellIndex != null || !isChanged)
+            return getEmptyCellIndex().findFrom(indexX, indexY);
+
+        for (int i = indexX; i < rows; i++, indexY = 0) {
+            if (indexY >= columns)
+                continue;
+
+            int word = indexY >>> 6;
+            long empty = ~getWord(i, word) & (-1L << indexY);
+            while (empty == 0 && ++word < wordsPerRow)
+                empty = ~getWord(i, word);
+
+            if (empty != 0)
+                return new Point(i, (word << 6) + Long.numberOfTrailingZeros(empty));
+        }
+
+        return null;
+    }
+
+    @Override
+    Point findEmptyPointBackFrom(int indexX, int indexY) {
+        if (emptyCellIndex != null || !isChanged)
+            return getEmptyCellIndex().findBackFrom(indexX, indexY);
+
+        for (int i = indexX; i >= 0; i--, indexY = columns - 1) {
+            if (indexY < 0)
+                continue;
+
+            int word = indexY >>> 6;
+            long empty = ~getWord(i, word) & (-1L >>> (63 - (indexY & 63)));
+            while (empty == 0 && --word >= 0)
+                empty = ~getWord(i, word);
+
+            if (empty != 0)
+                return new Point(i, (word << 6) + 63 - Long.numberOfLeadingZeros(empty));
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package maze;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only maze over the spanning-tree encoding of a maze with the area layout
+ * of {@link EllerMaze}: areas are the cells with both indexes even and are always
+ * empty, cells with both indexes odd are always walls. Every area has two bits in
+ * little-endian words, bit 2 * area is set if the passage to the right is open
+ * and bit 2 * area + 1 if the passage down is open.
+ */
+class MappedTreeMaze extends AbstractMaze {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int rows;
+    private final int columns;
+    private final int blockAreaColumns;
+
+    MappedTreeMaze(ByteBuffer buffer, int offset, int rows, int columns) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.rows = rows;
+        this.columns = columns;
+        blockAreaColumns = (columns + 1) / 2;
+    }
+
+    /**
+     * @return number of bytes the encoding of the given size takes
+     */
+    static long getTreeSize(int rows, int columns) {
+        long areas = (long) ((rows + 1) / 2) * ((columns + 1) / 2);
+        return (areas * 2 + 63) / 64 * 8;
+    }
+
+    /**
+     * @return true if the maze has the area layout this encoding can hold
+     */
+    static boolean canEncode(Maze maze) {
+        int rows = maze.getHeight();
+        int columns = maze.getWidth();
+        if (rows % 2 == 0 || columns % 2 == 0)
+            return false;
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = i % 2; j < columns; j += 2) {
+                MazeBlock expected = i % 2 == 0 ? MazeBlock.EMPTY : MazeBlock.WALL;
+                if (maze.getBlockAt(i, j) != expected)
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int getWidth() {
+        return columns;
+    }
+
+    @Override
+    public int getHeight() {
+        return rows;
+    }
+
+    @Override
+    public MazeBlock getBlockAt(int indexX, int indexY) {
+        if (indexX < 0 || indexX >= rows || indexY < 0 || indexY >= columns)
+            throw new IndexOutOfBoundsException("Cell " + indexX + ", " + indexY + " is out of the maze");
+
+        boolean isOddRow = (indexX & 1) != 0;
+        boolean isOddColumn = (indexY & 1) != 0;
+        if (isOddRow == isOddColumn)
+            return isOddRow ? MazeBlock.WALL : MazeBlock.EMPTY;
+
+        long bit = ((long) (indexX >>> 1) * blockAreaColumns + (indexY >>> 1)) * 2 + (isOddRow ? 1 : 0);
+        long word = buffer.getLong(offset + (int) (bit >>> 6) * 8);
+        return (word & (1L << bit)) != 0 ? MazeBlock.EMPTY : MazeBlock.WALL;
+    }
+}
@@ -0,0 +1,95 @@
+package maze;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of generated and validated mazes keyed by the generator and
+ * the parameters it was given. The total number of cells of the cached mazes is
+ * kept under the limit by evicting the least recently used ones. Cached mazes are
+ * shared, which is safe as a Maze can not be changed from outside the package.
+ */
+final class MazeCache {
+    private final long maxCells;
+    private final LinkedHashMap<Key, Maze> mazes = new LinkedHashMap<Key, Maze>(16, 0.75f, true);
+    private long cells;
+
+    MazeCache(long maxCells) {
+        this.maxCells = maxCells;
+    }
+
+    synchronized Maze get(String generatorName, int width, int height, long seed, Map<String, String> options) {
+        return mazes.get(new Key(generatorName, width, height, seed, options));
+    }
+
+    synchronized void put(String generatorName, int width, int height, long seed, Map<String, String> options,
+                          Maze maze) {
+        long mazeCells = getCellCount(maze);
+        if (mazeCells > maxCells)
+            return;
+
+        Maze replaced = mazes.put(new Key(generatorName, width, height, seed, new HashMap<String, String>(options)),
+                maze);
+        if (replaced != null)
+            cells -= getCellCount(replaced);
+        cells += mazeCells;
+
+        Iterator<Map.Entry<Key, Maze>> iterator = mazes.entrySet().iterator();
+        while (cells > maxCells) {
+            cells -= getCellCount(iterator.next().getValue());
+            iterator.remove();
+        }
+    }
+
+    synchronized long getCellCount() {
+        return cells;
+    }
+
+    synchronized int size() {
+        return mazes.size();
+    }
+
+    private static long getCellCount(Maze maze) {
+        return (long) maze.getWidth() * maze.getHeight();
+    }
+
+    private static final class Key {
+        private final String generatorName;
+        private final int width;
+        private final int height;
+        private final long seed;
+        private final Map<String, String> options;
+
+        Key(String generatorName, int width, int height, long seed, Map<String, String> options) {
+            this.generatorName = generatorName;
+            this.width = width;
+            this.height = height;
+            this.seed = seed;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key key = (Key) o;
+            return width == key.width && height == key.height && seed == key.seed
+                    && generatorName.equals(key.generatorName) && options.equals(key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = generatorName.hashCode();
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + (int) (seed ^ (seed >>> 32));
+            result = 31 * result + options.hashCode();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package maze;
+
+/**
+ * Callback that receives maze cells one by one, without allocating a {@link Point} for each.
+ */
+public interface MazeCellVisitor {
+    void visitCell(int indexX, int indexY);
+}
@@ -2,17 +2,67 @@ package maze;
 
 import settings.Settings;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
 public class MazeFactory {
+    private static final MazeCache cache = new MazeCache(Settings.getMazeCacheMaxCells());
+    private static final Random seeds = new Random();
+
     private MazeFactory() {}
 
+    /**
+     * @return a new maze of the configured size made by the configured generator
+     */
     public static Maze getMaze() {
-        Maze maze = null;
-        try {
-            maze = (Maze) Class.forName(Settings.getMazeImplementationClassName()).newInstance();
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.exit(-1);
-        }
+        return MazeGenerators.get(Settings.getMazeGeneratorName()).generate(Settings.getMazeColumns(),
+                Settings.getMazeRows(), seeds.nextLong(), Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * @return a correct maze of the configured size generated from the seed
+     */
+    public static Maze getMaze(long seed) {
+        return getMaze(Settings.getMazeColumns(), Settings.getMazeRows(), seed, Settings.getWallPercentage());
+    }
+
+    /**
+     * @return a correct maze made by the configured generator from the seed
+     * @see MazeGenerator#generate(int, int, long, Map)
+     */
+    public static Maze getMaze(int width, int height, long seed, int wallPercentage) {
+        return getMaze(Settings.getMazeGeneratorName(), width, height, seed,
+                Collections.singletonMap(MazeGenerator.WALL_PERCENTAGE_OPTION, String.valueOf(wallPercentage)));
+    }
+
+    /**
+     * Returns a correct maze made by the named generator, served from the cache
+     * when the same one was requested before. A wall percentage given explicitly
+     * and the same one taken from the settings make the same maze.
+     *
+     * @see MazeGenerator#generate(int, int, long, Map)
+     */
+    public static Maze getMaze(String generatorName, int width, int height, long seed, Map<String, String> options) {
+        options = normalizeOptions(options);
+        Maze maze = cache.get(generatorName, width, height, seed, options);
+        if (maze != null)
+            return maze;
+
+        maze = MazeGenerators.get(generatorName).generate(width, height, seed, options);
+        cache.put(generatorName, width, height, seed, options, maze);
         return maze;
     }
+
+    /**
+     * @return copy of the options with the wall percentage set and written in one form
+     */
+    private static Map<String, String> normalizeOptions(Map<String, String> options) {
+        Map<String, String> normalized = new HashMap<String, String>(options);
+        normalized.put(MazeGenerator.WALL_PERCENTAGE_OPTION, String.valueOf(MazeGenerators.getIntOption(options,
+                MazeGenerator.WALL_PERCENTAGE_OPTION, Settings.getWallPercentage())));
+
+        return normalized;
+    }
 }
@@ -0,0 +1,315 @@
+package maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary maze file with an optional path. All numbers are little-endian.
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "MAZE"
+ *      4     2  version
+ *      6     1  encoding: 0 for the grid, 1 for the spanning tree
+ *      7     1  flags: 1 if the file has a path
+ *      8     4  width
+ *     12     4  height
+ *     16     8  offset of the path section, 0 without a path
+ *     24     4  number of the path cells
+ *     28     4  reserved
+ *     32        cells in the encoding, then the path as flat cell indexes x * width + y
+ * </pre>
+ * The grid is laid out as the bitmap of {@link BitPackedMaze}, one bit per cell;
+ * the spanning tree as in {@link MappedTreeMaze}, two bits per area. An opened
+ * file is mapped into memory and its maze reads the cells right from the mapping;
+ * a grid is mapped in segments by {@link FileMappedMaze}, so it may exceed 2 GiB.
+ * The path numbers its cells with ints, so only a maze of at most
+ * {@link Integer#MAX_VALUE} cells can have one.
+ */
+public final class MazeFile {
+    public enum Encoding {
+        GRID, SPANNING_TREE
+    }
+
+    public static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    private static final int MAGIC = 0x455A414D;
+    private static final int HAS_PATH_FLAG = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Fields of a read header.
+     */
+    static final class Header {
+        Encoding encoding;
+        int rows;
+        int columns;
+        boolean hasPath;
+        long pathOffset;
+        int pathLength;
+    }
+
+    private final Maze maze;
+    private final CompactPath path;
+    private final Encoding encoding;
+
+    private MazeFile(Maze maze, CompactPath path, Encoding encoding) {
+        this.maze = maze;
+        this.path = path;
+        this.encoding = encoding;
+    }
+
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * @return the saved path or null if the file has none
+     */
+    public CompactPath getPath() {
+        return path;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Saves the maze as a spanning tree if it has the area layout, otherwise as a grid.
+     *
+     * @param path path in the maze or null
+     * @throws IllegalArgumentException if there is a path and the maze has more than Integer.MAX_VALUE cells
+     */
+    public static void save(File file, Maze maze, CompactPath path) throws IOException {
+        save(file, maze, path, MappedTreeMaze.canEncode(maze) ? Encoding.SPANNING_TREE : Encoding.GRID);
+    }
+
+    public static void save(File file, Maze maze, CompactPath path, Encoding encoding) throws IOException {
+        if (encoding == Encoding.SPANNING_TREE && !MappedTreeMaze.canEncode(maze))
+            throw new IllegalArgumentException("Maze has no area layout");
+
+        if (path != null)
+            SearchScratch.getCellCount(maze);
+
+        int rows = maze.getHeight();
+        int columns = maze.getWidth();
+        ByteBuffer header = createHeader(encoding, rows, columns, getCellsSize(encoding, rows, columns), path);
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            channel.truncate(0);
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (encoding == Encoding.GRID)
+                writeGrid(channel, buffer, maze);
+            else
+                writeTree(channel, buffer, maze);
+
+            if (path != null) {
+                for (int i = 0; i < path.size(); i++) {
+                    if (!buffer.hasRemaining())
+                        flush(channel, buffer);
+                    buffer.putInt(path.getX(i) * columns + path.getY(i));
+                }
+            }
+            flush(channel, buffer);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static void writeGrid(FileChannel channel, ByteBuffer buffer, Maze maze) throws IOException {
+        int rows = maze.getHeight();
+        int columns = maze.getWidth();
+        int wordsPerRow = (columns + 63) >>> 6;
+
+        for (int i = 0; i < rows; i++) {
+            for (int word = 0; word < wordsPerRow; word++) {
+                long walls;
+                if (maze instanceof BitPackedMaze)
+                    walls = ((BitPackedMaze) maze).walls[i * wordsPerRow + word];
+                else {
+                    walls = -1L;
+                    for (int j = word << 6; j < columns && j < (word + 1) << 6; j++) {
+                        if (maze.getBlockAt(i, j) == MazeBlock.EMPTY)
+                            walls &= ~(1L << j);
+                    }
+                }
+
+                if (!buffer.hasRemaining())
+                    flush(channel, buffer);
+                buffer.putLong(walls);
+            }
+        }
+    }
+
+    private static void writeTree(FileChannel channel, ByteBuffer buffer, Maze maze) throws IOException {
+        int rows = maze.getHeight();
+        int columns = maze.getWidth();
+        long bit = 0;
+        long word = 0;
+
+        for (int i = 0; i < rows; i += 2) {
+            for (int j = 0; j < columns; j += 2) {
+                if (j + 1 < columns && maze.getBlockAt(i, j + 1) == MazeBlock.EMPTY)
+                    word |= 1L << bit;
+                if (i + 1 < rows && maze.getBlockAt(i + 1, j) == MazeBlock.EMPTY)
+                    word |= 2L << bit;
+
+                bit += 2;
+                if (bit == 64) {
+                    if (!buffer.hasRemaining())
+                        flush(channel, buffer);
+                    buffer.putLong(word);
+                    bit = 0;
+                    word = 0;
+                }
+            }
+        }
+
+        if (bit != 0) {
+            if (!buffer.hasRemaining())
+                flush(channel, buffer);
+            buffer.putLong(word);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long getCellsSize(Encoding encoding, int rows, int columns) {
+        return encoding == Encoding.GRID
+                ? FileMappedMaze.getGridSize(rows, columns) : MappedTreeMaze.getTreeSize(rows, columns);
+    }
+
+    /**
+     * @param path path written after the cells or null
+     * @return the header ready to be written
+     */
+    static ByteBuffer createHeader(Encoding encoding, int rows, int columns, long cellsSize, CompactPath path) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.put((byte) encoding.ordinal());
+        header.put((byte) (path != null ? HAS_PATH_FLAG : 0));
+        header.putInt(columns);
+        header.putInt(rows);
+        header.putLong(path != null ? HEADER_SIZE + cellsSize : 0);
+        header.putInt(path != null ? path.size() : 0);
+        header.putInt(0);
+        header.flip();
+
+        return header;
+    }
+
+    static Header readHeader(FileChannel channel, File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, buffer, 0);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("Not a maze file: " + file);
+        if (buffer.getShort(4) != VERSION)
+            throw new IOException("Unsupported maze file version " + buffer.getShort(4) + ": " + file);
+
+        int encodingIndex = buffer.get(6);
+        if (encodingIndex < 0 || encodingIndex >= Encoding.values().length)
+            throw new IOException("Unknown maze encoding " + encodingIndex + ": " + file);
+
+        Header header = new Header();
+        header.encoding = Encoding.values()[encodingIndex];
+        header.hasPath = (buffer.get(7) & HAS_PATH_FLAG) != 0;
+        header.columns = buffer.getInt(8);
+        header.rows = buffer.getInt(12);
+        header.pathOffset = buffer.getLong(16);
+        header.pathLength = buffer.getInt(24);
+        if (header.rows < 0 || header.columns < 0)
+            throw new IOException("Not a maze file: " + file);
+        if (header.hasPath && (long) header.rows * header.columns > Integer.MAX_VALUE)
+            throw new IOException("Maze with a path has more than " + Integer.MAX_VALUE + " cells: " + file);
+
+        return header;
+    }
+
+    /**
+     * Reads from the position until the buffer is full or the file ends.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                break;
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Maps the cells of the file into memory. The maze is a view of the mapping,
+     * only the path is copied to the heap.
+     */
+    public static MazeFile open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            Header header = readHeader(channel, file);
+            long cellsSize = getCellsSize(header.encoding, header.rows, header.columns);
+            if (channel.size() < HEADER_SIZE + cellsSize)
+                throw new IOException("Maze file is truncated: " + file);
+
+            Maze maze;
+            if (header.encoding == Encoding.GRID) {
+                maze = new FileMappedMaze(channel, HEADER_SIZE, header.rows, header.columns, false);
+            } else {
+                if (cellsSize > Integer.MAX_VALUE)
+                    throw new IOException("Maze is too big to be mapped: " + file);
+
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, cellsSize);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                maze = new MappedTreeMaze(buffer, 0, header.rows, header.columns);
+            }
+
+            CompactPath path = null;
+            if (header.hasPath) {
+                if (header.pathOffset < HEADER_SIZE + cellsSize || header.pathLength < 0
+                        || header.pathOffset + header.pathLength * 4L > channel.size())
+                    throw new IOException("Maze file is truncated: " + file);
+
+                path = new CompactPath(header.columns, readPath(channel, header.pathOffset, header.pathLength));
+            }
+
+            return new MazeFile(maze, path, header.encoding);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static int[] readPath(FileChannel channel, long position, int length) throws IOException {
+        int[] cells = new int[length];
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int i = 0; i < length; ) {
+            buffer.clear();
+            buffer.limit(Math.min(BUFFER_SIZE, (length - i) * 4));
+            readFully(channel, buffer, position + i * 4L);
+            while (buffer.remaining() >= 4) {
+                cells[i++] = buffer.getInt();
+            }
+        }
+
+        return cells;
+    }
+}
@@ -0,0 +1,27 @@
+package maze;
+
+import java.util.Map;
+
+/**
+ * Generator of correct mazes. Implementations are discovered with
+ * {@link java.util.ServiceLoader} and looked up by name in {@link MazeGenerators},
+ * so they need a public no-arg constructor and must be safe to use from several
+ * threads.
+ */
+public interface MazeGenerator {
+    /**
+     * Share of walls in percents, used by the row generation of the areas.
+     */
+    String WALL_PERCENTAGE_OPTION = "wall_percentage";
+
+    String getName();
+
+    /**
+     * @param width   number of columns, as in the settings: the maze has width / 2 columns of areas
+     * @param height  number of rows, as in the settings: the maze has height / 2 rows of areas
+     * @param seed    the same seed with the same options gives the same maze
+     * @param options generator specific options, missing ones take default values
+     * @return a correct maze
+     */
+    Maze generate(int width, int height, long seed, Map<String, String> options);
+}
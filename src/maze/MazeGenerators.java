@@ -0,0 +1,50 @@
+package maze;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Registry of the maze generators listed in META-INF/services/maze.MazeGenerator.
+ * They are loaded once, so a lookup is a map access.
+ */
+public final class MazeGenerators {
+    private static final Map<String, MazeGenerator> generators = loadGenerators();
+
+    private MazeGenerators() {}
+
+    private static Map<String, MazeGenerator> loadGenerators() {
+        Map<String, MazeGenerator> loaded = new LinkedHashMap<String, MazeGenerator>();
+        for (MazeGenerator generator : ServiceLoader.load(MazeGenerator.class, MazeGenerator.class.getClassLoader())) {
+            loaded.put(generator.getName(), generator);
+        }
+
+        return Collections.unmodifiableMap(loaded);
+    }
+
+    public static MazeGenerator get(String name) {
+        MazeGenerator generator = generators.get(name);
+        if (generator == null)
+            throw new IllegalArgumentException("Unknown maze generator: " + name);
+
+        return generator;
+    }
+
+    public static Set<String> getNames() {
+        return generators.keySet();
+    }
+
+    static int getIntOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option " + name + " must be an integer: " + value);
+        }
+    }
+}
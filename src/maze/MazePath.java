@@ -3,7 +3,20 @@ package maze;
 import java.util.List;
 
 public interface MazePath {
+    /**
+     * @return cells of the path from the start to the finish, empty if there is no path
+     */
+    CompactPath getPath();
+
+    /**
+     * @return list view of {@link #getPath()}
+     */
     List<Point> getPathList();
 
     boolean isExist();
+
+    /**
+     * @return number of cells the search expanded to find this path
+     */
+    int getExpandedNodeCount();
 }
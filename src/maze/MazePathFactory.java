@@ -0,0 +1,90 @@
+package maze;
+
+import metrics.MazeMetrics;
+import settings.Settings;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class MazePathFactory {
+    private static final ConcurrentMap<String, Constructor<? extends MazePath>> constructors =
+            new ConcurrentHashMap<String, Constructor<? extends MazePath>>();
+
+    private MazePathFactory() {}
+
+    public static MazePath getMazePath(Maze maze, int startX, int startY, int finishX, int finishY) {
+        return getMazePath(Settings.getMazePathImplementationClassName(), maze, startX, startY, finishX, finishY);
+    }
+
+    /**
+     * @param implementationClassName name of a MazePath class with a (Maze, int, int, int, int) constructor
+     */
+    public static MazePath getMazePath(String implementationClassName, Maze maze,
+                                       int startX, int startY, int finishX, int finishY) {
+        MazePath mazePath = null;
+        try {
+            mazePath = getMazePath(getConstructor(implementationClassName), maze, startX, startY, finishX, finishY);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(-1);
+        }
+        return mazePath;
+    }
+
+    /**
+     * Solves with the given constructor. An exception thrown by the solver is
+     * passed on to the caller unchanged.
+     */
+    public static MazePath getMazePath(Constructor<? extends MazePath> constructor, Maze maze,
+                                       int startX, int startY, int finishX, int finishY) {
+        long startTime = System.nanoTime();
+        MazePath mazePath;
+        try {
+            mazePath = constructor.newInstance(maze, startX, startY, finishX, finishY);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (InstantiationException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        MazeMetrics.recordSolve(System.nanoTime() - startTime, mazePath.getExpandedNodeCount());
+        return mazePath;
+    }
+
+    /**
+     * Looks the constructor up on the first request for the class and caches it.
+     *
+     * @param implementationClassName name of a MazePath class with a (Maze, int, int, int, int) constructor
+     * @throws IllegalArgumentException if there is no such class or constructor
+     */
+    public static Constructor<? extends MazePath> getConstructor(String implementationClassName) {
+        Constructor<? extends MazePath> constructor = constructors.get(implementationClassName);
+        if (constructor == null) {
+            constructor = findConstructor(implementationClassName);
+            constructors.putIfAbsent(implementationClassName, constructor);
+        }
+
+        return constructor;
+    }
+
+    private static Constructor<? extends MazePath> findConstructor(String implementationClassName) {
+        try {
+            return Class.forName(implementationClassName).asSubclass(MazePath.class)
+                    .getConstructor(Maze.class, int.class, int.class, int.class, int.class);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown maze path class: " + implementationClassName, e);
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Not a maze path class: " + implementationClassName, e);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Maze path class has no (Maze, int, int, int, int) constructor: "
+                    + implementationClassName, e);
+        }
+    }
+}
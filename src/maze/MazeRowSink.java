@@ -0,0 +1,14 @@
+package maze;
+
+/**
+ * Consumer of maze rows produced by a streaming generator.
+ */
+public interface MazeRowSink {
+    /**
+     * @param rowIndex index of the row of cells, starting from 0
+     * @param walls    wall bits of the row: cell j is a wall if bit (j &amp; 63) of walls[j &gt;&gt;&gt; 6] is set,
+     *                 bits after the last cell are set too. The array is reused for the next row,
+     *                 so it must be copied if kept.
+     */
+    void acceptRow(long rowIndex, long[] walls);
+}
@@ -0,0 +1,241 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Checks the passage graph of a maze in linear time.
+ * Empty cells are the vertices and every pair of adjacent empty cells is an edge.
+ * The flood fill numbers cells with ints; {@link #isPerfectByRows(Maze)} works
+ * for a maze of any number of cells.
+ */
+final class MazeValidator {
+    private static final int NONE = -1;
+
+    private MazeValidator() {}
+
+    /**
+     * @return true if every empty cell is reachable from any other one
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells
+     */
+    static boolean isConnected(Maze maze) {
+        SearchScratch.getCellCount(maze);
+        int emptyCells = 0;
+        for (int i = 0; i < maze.getHeight(); i++) {
+            for (int j = 0; j < maze.getWidth(); j++) {
+                if (maze.getBlockAt(i, j) == MazeBlock.EMPTY)
+                    ++emptyCells;
+            }
+        }
+
+        return emptyCells == 0 || countReachableCells(maze) == emptyCells;
+    }
+
+    /**
+     * @return true if every empty cell is reachable and the passage graph is a tree,
+     * so there is exactly one path between any two empty cells
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells
+     */
+    static boolean isPerfect(Maze maze) {
+        SearchScratch.getCellCount(maze);
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+
+        int emptyCells = 0;
+        long edges = 0;
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                if (maze.getBlockAt(i, j) == MazeBlock.WALL)
+                    continue;
+
+                ++emptyCells;
+                if (j < width - 1 && maze.getBlockAt(i, j + 1) == MazeBlock.EMPTY)
+                    ++edges;
+                if (i < height - 1 && maze.getBlockAt(i + 1, j) == MazeBlock.EMPTY)
+                    ++edges;
+            }
+        }
+
+        if (emptyCells == 0)
+            return true;
+        if (edges != emptyCells - 1)
+            return false;
+
+        return countReachableCells(maze) == emptyCells;
+    }
+
+    private static int countReachableCells(Maze maze) {
+        Point first = maze.getFirstEmptyPoint();
+        if (first == null)
+            return 0;
+
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+
+        SearchScratch scratch = SearchScratch.forCurrentThread();
+        int stamp = scratch.begin(SearchScratch.getCellCount(maze));
+        int[] marks = scratch.marks;
+        int[] queue = scratch.queue;
+
+        int start = first.x * width + first.y;
+        marks[start] = stamp;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / width;
+            int y = cell - x * width;
+
+            int next = cell - width;
+            if (x > 0 && marks[next] != stamp && maze.getBlockAt(x - 1, y) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                queue[tail++] = next;
+            }
+
+            next = cell + width;
+            if (x < height - 1 && marks[next] != stamp && maze.getBlockAt(x + 1, y) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                queue[tail++] = next;
+            }
+
+            next = cell - 1;
+            if (y > 0 && marks[next] != stamp && maze.getBlockAt(x, y - 1) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                queue[tail++] = next;
+            }
+
+            next = cell + 1;
+            if (y < width - 1 && marks[next] != stamp && maze.getBlockAt(x, y + 1) == MazeBlock.EMPTY) {
+                marks[next] = stamp;
+                queue[tail++] = next;
+            }
+        }
+
+        return tail;
+    }
+
+    /**
+     * Gives the same answer as {@link #isPerfect(Maze)} in one pass over the rows.
+     * Only the components of the previous row are kept, joined through the current
+     * row in a union-find structure, so memory depends on the width alone and cells
+     * are never numbered. A second path between two cells shows up as a union of
+     * cells that are already joined; a component that does not go on into the next
+     * row is finished and must be the only one.
+     */
+    static boolean isPerfectByRows(Maze maze) {
+        WallBitmap bitmap = null;
+        if (maze instanceof BitPackedMaze)
+            bitmap = (BitPackedMaze) maze;
+        else if (maze instanceof FileMappedMaze)
+            bitmap = ((FileMappedMaze) maze).getWallBitmap();
+
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        long[] rowWalls = new long[(width + 63) >>> 6];
+        int[] labels = new int[width];
+        int[] labelCells = new int[width];
+        int[] parents = new int[width];
+        int[] rootLabels = new int[width];
+        Arrays.fill(labels, NONE);
+        Arrays.fill(rootLabels, NONE);
+        int labelCount = 0;
+        int finishedComponents = 0;
+
+        for (int i = 0; i < height; i++) {
+            Arrays.fill(labelCells, 0, labelCount, NONE);
+            boolean hasEmptyCells = false;
+            readRow(maze, bitmap, i, rowWalls);
+            for (int j = 0; j < width; j++) {
+                if ((rowWalls[j >>> 6] & (1L << j)) != 0) {
+                    parents[j] = NONE;
+                    continue;
+                }
+
+                hasEmptyCells = true;
+                parents[j] = j > 0 && parents[j - 1] != NONE ? j - 1 : j;
+
+                int label = labels[j];
+                if (label != NONE) {
+                    if (labelCells[label] == NONE)
+                        labelCells[label] = j;
+                    else if (!uniteCells(parents, labelCells[label], j))
+                        return false;
+                }
+            }
+
+            for (int label = 0; label < labelCount; label++) {
+                if (labelCells[label] == NONE)
+                    ++finishedComponents;
+            }
+            if (finishedComponents > 1 || finishedComponents == 1 && hasEmptyCells)
+                return false;
+
+            labelCount = 0;
+            for (int j = 0; j < width; j++) {
+                if (parents[j] == NONE) {
+                    labels[j] = NONE;
+                    continue;
+                }
+
+                if (j > 0 && parents[j - 1] != NONE) {
+                    labels[j] = labels[j - 1];
+                    continue;
+                }
+
+                int root = findRoot(parents, j);
+                if (rootLabels[root] == NONE)
+                    rootLabels[root] = labelCount++;
+                labels[j] = rootLabels[root];
+            }
+            for (int j = 0; j < width; j++) {
+                if (parents[j] == j)
+                    rootLabels[j] = NONE;
+            }
+        }
+
+        return finishedComponents + labelCount <= 1;
+    }
+
+    /**
+     * Reads the walls of a row into words laid out as a row of {@link WallBitmap},
+     * from the bitmap if the maze has one.
+     */
+    private static void readRow(Maze maze, WallBitmap bitmap, int row, long[] rowWalls) {
+        if (bitmap != null) {
+            long firstWord = (long) row * rowWalls.length;
+            for (int word = 0; word < rowWalls.length; word++) {
+                rowWalls[word] = bitmap.getWord(firstWord + word);
+            }
+            return;
+        }
+
+        Arrays.fill(rowWalls, 0);
+        for (int j = 0; j < maze.getWidth(); j++) {
+            if (maze.getBlockAt(row, j) == MazeBlock.WALL)
+                rowWalls[j >>> 6] |= 1L << j;
+        }
+    }
+
+    private static int findRoot(int[] parents, int cell) {
+        while (parents[cell] != cell) {
+            parents[cell] = parents[parents[cell]];
+            cell = parents[cell];
+        }
+
+        return cell;
+    }
+
+    /**
+     * @return false if the cells are joined already
+     */
+    private static boolean uniteCells(int[] parents, int first, int second) {
+        int firstRoot = findRoot(parents, first);
+        int secondRoot = findRoot(parents, second);
+        if (firstRoot == secondRoot)
+            return false;
+
+        parents[firstRoot] = secondRoot;
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package maze;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Path finder for very large mazes that expands every breadth-first level in parallel
+ * through {@link ParallelDistanceField}. The path is rebuilt from the finish by stepping
+ * to a neighbour one step closer to the start. Mazes smaller than
+ * {@link #PARALLEL_THRESHOLD} cells are solved by {@link BreadthFirstMazePath}, because
+ * forking does not pay off on them.
+ */
+public class ParallelBfsMazePath implements MazePath {
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private final boolean isPathExists;
+    private final CompactPath path;
+    private final int expandedNodeCount;
+
+    public ParallelBfsMazePath(Maze maze, int startX, int startY, int finishX, int finishY) {
+        this(maze, startX, startY, finishX, finishY, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBfsMazePath(Maze maze, int startX, int startY, int finishX, int finishY, ForkJoinPool pool) {
+        int width = maze.getWidth();
+
+        if (SearchScratch.getCellCount(maze) < PARALLEL_THRESHOLD) {
+            MazePath sequentialPath = new BreadthFirstMazePath(maze, startX, startY, finishX, finishY);
+            isPathExists = sequentialPath.isExist();
+            path = sequentialPath.getPath();
+            expandedNodeCount = sequentialPath.getExpandedNodeCount();
+            return;
+        }
+
+        ParallelDistanceField field;
+        if (maze.getBlockAt(finishX, finishY) == MazeBlock.EMPTY)
+            field = new ParallelDistanceField(maze, startX, startY, finishX, finishY, pool);
+        else
+            field = null;
+
+        expandedNodeCount = field == null ? 0 : field.getExpandedNodeCount();
+        isPathExists = field != null && field.getDistance(finishX, finishY) >= 0;
+        path = isPathExists ? buildPath(maze, field, finishX * width + finishY) : CompactPath.empty(width);
+    }
+
+    @Override
+    public boolean isExist() {
+        return isPathExists;
+    }
+
+    @Override
+    public CompactPath getPath() {
+        return path;
+    }
+
+    @Override
+    public List<Point> getPathList() {
+        return path.asList();
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    private CompactPath buildPath(Maze maze, ParallelDistanceField field, int finish) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+
+        int[] cells = new int[field.getDistance(finish) + 1];
+        int cell = finish;
+        cells[cells.length - 1] = cell;
+
+        for (int i = cells.length - 2; i >= 0; i--) {
+            int x = cell / width;
+            int y = cell - x * width;
+            int distance = field.getDistance(cell) - 1;
+
+            if (x > 0 && field.getDistance(cell - width) == distance)
+                cell -= width;
+            else if (x < height - 1 && field.getDistance(cell + width) == distance)
+                cell += width;
+            else if (y > 0 && field.getDistance(cell - 1) == distance)
+                cell -= 1;
+            else
+                cell += 1;
+
+            cells[i] = cell;
+        }
+
+        return new CompactPath(width, cells);
+    }
+}
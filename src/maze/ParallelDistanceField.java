@@ -0,0 +1,174 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distances from one cell to every reachable cell, computed by a level-synchronous
+ * breadth-first search that expands each level in parallel.
+ * The frontier of a level is cut into chunks that are expanded by fork/join tasks.
+ * A cell is claimed by setting its bit in a shared visited bitmap with compare-and-set,
+ * so every cell joins exactly one next frontier; the chunks of the next frontier are
+ * then joined in order. Small levels are expanded without forking.
+ */
+public class ParallelDistanceField {
+    private static final int CELLS_PER_TASK = 4096;
+
+    private final Maze maze;
+    private final ForkJoinPool pool;
+    private final int width;
+    private final int height;
+    private final int[] distances;
+    private final AtomicLongArray visited;
+    private int expandedNodeCount = 0;
+
+    public ParallelDistanceField(Maze maze, int startX, int startY) {
+        this(maze, startX, startY, -1, -1, ForkJoinPool.commonPool());
+    }
+
+    public ParallelDistanceField(Maze maze, int startX, int startY, ForkJoinPool pool) {
+        this(maze, startX, startY, -1, -1, pool);
+    }
+
+    /**
+     * Stops after the level where the given finish cell is reached, if it is inside the maze.
+     */
+    ParallelDistanceField(Maze maze, int startX, int startY, int finishX, int finishY, ForkJoinPool pool) {
+        this.maze = maze;
+        this.pool = pool;
+        width = maze.getWidth();
+        height = maze.getHeight();
+        distances = new int[SearchScratch.getCellCount(maze)];
+        visited = new AtomicLongArray((distances.length + 63) >>> 6);
+        Arrays.fill(distances, -1);
+
+        if (maze.getBlockAt(startX, startY) == MazeBlock.EMPTY)
+            compute(startX * width + startY, finishX < 0 ? -1 : finishX * width + finishY);
+    }
+
+    /**
+     * @return number of steps from the start to the cell or -1 if it can not be reached
+     */
+    public int getDistance(int indexX, int indexY) {
+        return distances[indexX * width + indexY];
+    }
+
+    /**
+     * @return number of cells taken from the frontiers
+     */
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    int getDistance(int cell) {
+        return distances[cell];
+    }
+
+    private void compute(int start, int finish) {
+        claim(start);
+        distances[start] = 0;
+
+        int[] frontier = {start};
+        int level = 0;
+        while (frontier.length > 0 && (finish < 0 || distances[finish] < 0)) {
+            expandedNodeCount += frontier.length;
+
+            int chunks = (frontier.length + CELLS_PER_TASK - 1) / CELLS_PER_TASK;
+            int[][] nextChunks = new int[chunks][];
+            ExpandTask task = new ExpandTask(frontier, level + 1, nextChunks, 0, chunks);
+            if (chunks == 1)
+                task.compute();
+            else
+                pool.invoke(task);
+
+            int nextLength = 0;
+            for (int[] chunk : nextChunks) {
+                nextLength += chunk[0];
+            }
+
+            int[] next = new int[nextLength];
+            int position = 0;
+            for (int[] chunk : nextChunks) {
+                System.arraycopy(chunk, 1, next, position, chunk[0]);
+                position += chunk[0];
+            }
+
+            frontier = next;
+            ++level;
+        }
+    }
+
+    private boolean claim(int cell) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        while (true) {
+            long old = visited.get(word);
+            if ((old & bit) != 0)
+                return false;
+            if (visited.compareAndSet(word, old, old | bit))
+                return true;
+        }
+    }
+
+    private class ExpandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] frontier;
+        private final int nextDistance;
+        private final int[][] nextChunks;
+        private final int fromChunk;
+        private final int toChunk;
+
+        private ExpandTask(int[] frontier, int nextDistance, int[][] nextChunks, int fromChunk, int toChunk) {
+            this.frontier = frontier;
+            this.nextDistance = nextDistance;
+            this.nextChunks = nextChunks;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(new ExpandTask(frontier, nextDistance, nextChunks, fromChunk, middle),
+                        new ExpandTask(frontier, nextDistance, nextChunks, middle, toChunk));
+                return;
+            }
+
+            int from = fromChunk * CELLS_PER_TASK;
+            int to = Math.min(from + CELLS_PER_TASK, frontier.length);
+            //the first element holds the number of cells
+            int[] next = new int[(to - from) * 4 + 1];
+            int count = 0;
+
+            for (int i = from; i < to; i++) {
+                int cell = frontier[i];
+                int x = cell / width;
+                int y = cell - x * width;
+
+                if (x > 0 && maze.getBlockAt(x - 1, y) == MazeBlock.EMPTY && claim(cell - width)) {
+                    distances[cell - width] = nextDistance;
+                    next[++count] = cell - width;
+                }
+                if (x < height - 1 && maze.getBlockAt(x + 1, y) == MazeBlock.EMPTY && claim(cell + width)) {
+                    distances[cell + width] = nextDistance;
+                    next[++count] = cell + width;
+                }
+                if (y > 0 && maze.getBlockAt(x, y - 1) == MazeBlock.EMPTY && claim(cell - 1)) {
+                    distances[cell - 1] = nextDistance;
+                    next[++count] = cell - 1;
+                }
+                if (y < width - 1 && maze.getBlockAt(x, y + 1) == MazeBlock.EMPTY && claim(cell + 1)) {
+                    distances[cell + 1] = nextDistance;
+                    next[++count] = cell + 1;
+                }
+            }
+
+            next[0] = count;
+            nextChunks[fromChunk] = next;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package maze;
+
+import metrics.MazeMetrics;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffers for the grid searches, one instance per thread.
+ * Cells are addressed by the flat index x * width + y. A cell counts as visited
+ * when its mark equals the stamp of the current solve, so the buffers never
+ * have to be cleared between solves.
+ */
+final class SearchScratch {
+    private static final ThreadLocal<SearchScratch> LOCAL = new ThreadLocal<SearchScratch>() {
+        @Override
+        protected SearchScratch initialValue() {
+            return new SearchScratch();
+        }
+    };
+
+    int[] marks = new int[0];
+    int[] parents = new int[0];
+    int[] queue = new int[0];
+    int[] distances = new int[0];
+    int[] heap = new int[0];
+    long[] heapKeys = new long[0];
+    int[] heapPositions = new int[0];
+    private int stamp = 0;
+
+    private SearchScratch() {
+    }
+
+    static SearchScratch forCurrentThread() {
+        return LOCAL.get();
+    }
+
+    /**
+     * @return number of cells of the maze, which the searches number with ints
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells
+     */
+    static int getCellCount(Maze maze) {
+        long cells = (long) maze.getWidth() * maze.getHeight();
+        if (cells > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze has " + cells + " cells, cells are numbered with ints up to "
+                    + Integer.MAX_VALUE);
+
+        return (int) cells;
+    }
+
+    /**
+     * Prepares the buffers for a grid of the given size.
+     *
+     * @return stamp that marks the cells visited by this solve
+     */
+    int begin(int cells) {
+        if (marks.length < cells) {
+            MazeMetrics.recordScratchAllocation(3L * 4 * (cells - marks.length));
+            marks = new int[cells];
+            parents = new int[cells];
+            queue = new int[cells];
+            stamp = 0;
+        }
+
+        return nextStamp();
+    }
+
+    /**
+     * Makes sure the distance buffer can hold the given number of cells.
+     */
+    void ensureDistanceCapacity(int cells) {
+        if (distances.length < cells) {
+            MazeMetrics.recordScratchAllocation(4L * (cells - distances.length));
+            distances = new int[cells];
+        }
+    }
+
+    /**
+     * Makes sure the buffers of the priority searches can hold the given number of cells.
+     */
+    void ensureHeapCapacity(int cells) {
+        ensureDistanceCapacity(cells);
+        if (heap.length < cells) {
+            MazeMetrics.recordScratchAllocation(16L * (cells - heap.length));
+            heap = new int[cells];
+            heapKeys = new long[cells];
+            heapPositions = new int[cells];
+        }
+    }
+
+    /**
+     * @return one more stamp for the current solve, distinct from all the previous ones
+     */
+    int nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            stamp = 0;
+        }
+
+        return ++stamp;
+    }
+}
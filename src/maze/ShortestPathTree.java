@@ -0,0 +1,154 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Breadth-first shortest-path tree of every cell reachable from the root. It is
+ * built by one full search, after that the shortest path between the root and
+ * any cell is found by following the parents, in time proportional to its length.
+ */
+public class ShortestPathTree {
+    private static final int UNREACHED = -1;
+
+    private final Maze maze;
+    private final int width;
+    private final int root;
+    private final int[] parents;
+    private int expandedNodeCount = 0;
+
+    public ShortestPathTree(Maze maze, int rootX, int rootY) {
+        this.maze = maze;
+        parents = new int[SearchScratch.getCellCount(maze)];
+        width = maze.getWidth();
+        root = rootX * width + rootY;
+
+        Arrays.fill(parents, UNREACHED);
+        if (maze.getBlockAt(rootX, rootY) == MazeBlock.EMPTY)
+            build(SearchScratch.forCurrentThread());
+    }
+
+    private void build(SearchScratch scratch) {
+        int height = maze.getHeight();
+        scratch.begin(parents.length);
+        int[] queue = scratch.queue;
+
+        parents[root] = root;
+        queue[0] = root;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            ++expandedNodeCount;
+            int x = cell / width;
+            int y = cell - x * width;
+
+            int next = cell - width;
+            if (x > 0 && parents[next] == UNREACHED && maze.getBlockAt(x - 1, y) == MazeBlock.EMPTY) {
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+
+            next = cell + width;
+            if (x < height - 1 && parents[next] == UNREACHED && maze.getBlockAt(x + 1, y) == MazeBlock.EMPTY) {
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+
+            next = cell - 1;
+            if (y > 0 && parents[next] == UNREACHED && maze.getBlockAt(x, y - 1) == MazeBlock.EMPTY) {
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+
+            next = cell + 1;
+            if (y < width - 1 && parents[next] == UNREACHED && maze.getBlockAt(x, y + 1) == MazeBlock.EMPTY) {
+                parents[next] = cell;
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    /**
+     * @return true if this is the tree of the given maze rooted at the given cell
+     */
+    public boolean isRootedAt(Maze m, int indexX, int indexY) {
+        return maze == m && root == indexX * width + indexY;
+    }
+
+    /**
+     * @return number of cells the search expanded to build the tree
+     */
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    /**
+     * @return shortest path from the root to the given cell
+     */
+    public MazePath getPathTo(int indexX, int indexY) {
+        return getPath(indexX, indexY, false);
+    }
+
+    /**
+     * @return shortest path from the given cell to the root
+     */
+    public MazePath getPathFrom(int indexX, int indexY) {
+        return getPath(indexX, indexY, true);
+    }
+
+    private MazePath getPath(int indexX, int indexY, boolean isFromCell) {
+        int cell = indexX * width + indexY;
+        if (parents[cell] == UNREACHED)
+            return new TreePath(CompactPath.empty(width), false);
+
+        int length = 1;
+        for (int i = cell; i != root; i = parents[i])
+            ++length;
+
+        int[] cells = new int[length];
+        if (isFromCell) {
+            for (int i = 0; i < length; i++, cell = parents[cell])
+                cells[i] = cell;
+        } else {
+            for (int i = length - 1; i >= 0; i--, cell = parents[cell])
+                cells[i] = cell;
+        }
+
+        return new TreePath(new CompactPath(width, cells), true);
+    }
+
+    private static class TreePath implements MazePath {
+        private final CompactPath path;
+        private final boolean isPathExists;
+
+        TreePath(CompactPath path, boolean isPathExists) {
+            this.path = path;
+            this.isPathExists = isPathExists;
+        }
+
+        @Override
+        public CompactPath getPath() {
+            return path;
+        }
+
+        @Override
+        public List<Point> getPathList() {
+            return path.asList();
+        }
+
+        @Override
+        public boolean isExist() {
+            return isPathExists;
+        }
+
+        /**
+         * @return 0, reading a path from the tree expands no cells
+         */
+        @Override
+        public int getExpandedNodeCount() {
+            return 0;
+        }
+    }
+}
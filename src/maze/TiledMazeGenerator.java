@@ -0,0 +1,197 @@
+package maze;
+
+import metrics.MazeMetrics;
+import settings.Settings;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generator that splits the maze into tiles, builds a perfect maze in every tile in
+ * parallel and then joins the tiles into one perfect maze.
+ * <p>
+ * A tile is {@value #TILE_AREA_ROWS} x {@value #TILE_AREA_COLUMNS} areas, so every row
+ * of a tile is exactly one word of the {@link BitPackedMaze} bitmap and tiles never
+ * write to the same word. Every tile is generated by its own {@link EllerRowGenerator}
+ * with a random stream split from one {@link SplittableRandom}, so the result depends
+ * on the seed only. The seams between tiles stay walled, and then exactly one passage
+ * is opened through the seam for every edge of a random spanning tree of the tile grid.
+ */
+public class TiledMazeGenerator implements MazeGenerator {
+    static final int TILE_AREA_ROWS = 32;
+    static final int TILE_AREA_COLUMNS = 32;
+    private static final int TILES_PER_TASK = 4;
+
+    private final ForkJoinPool pool;
+
+    public TiledMazeGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public TiledMazeGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public String getName() {
+        return "tiled";
+    }
+
+    @Override
+    public Maze generate(int width, int height, long seed, Map<String, String> options) {
+        return generate(width, height, seed,
+                MazeGenerators.getIntOption(options, WALL_PERCENTAGE_OPTION, Settings.getWallPercentage()));
+    }
+
+    private Maze generate(int width, int height, long seed, int wallPercentage) {
+        int blockAreaRows = height / 2;
+        int blockAreaColumns = width / 2;
+        if (blockAreaRows <= 0 || blockAreaColumns <= 0)
+            throw new IllegalArgumentException("Maze must have at least one area");
+
+        long startTime = System.nanoTime();
+        BitPackedMaze maze = new BitPackedMaze(blockAreaRows * 2 - 1, blockAreaColumns * 2 - 1);
+        int tileRows = (blockAreaRows + TILE_AREA_ROWS - 1) / TILE_AREA_ROWS;
+        int tileColumns = (blockAreaColumns + TILE_AREA_COLUMNS - 1) / TILE_AREA_COLUMNS;
+
+        SplittableRandom rand = new SplittableRandom(seed);
+        SplittableRandom[] tileRands = new SplittableRandom[tileRows * tileColumns];
+        for (int i = 0; i < tileRands.length; i++) {
+            tileRands[i] = rand.split();
+        }
+
+        pool.invoke(new TileTask(maze, blockAreaRows, blockAreaColumns, tileColumns, wallPercentage,
+                tileRands, 0, tileRands.length));
+
+        stitchTiles(maze, blockAreaRows, blockAreaColumns, tileRows, tileColumns, rand);
+        maze.getEmptyCellIndex();
+
+        MazeMetrics.recordGeneration(System.nanoTime() - startTime);
+        return maze;
+    }
+
+    /**
+     * Opens one passage through the seam for every edge of a random spanning tree of the tiles.
+     */
+    private void stitchTiles(BitPackedMaze maze, int blockAreaRows, int blockAreaColumns,
+                             int tileRows, int tileColumns, SplittableRandom rand) {
+        int tiles = tileRows * tileColumns;
+        //edge 2 * tile goes to the right neighbour of the tile, edge 2 * tile + 1 goes down
+        int[] edges = new int[tiles * 2];
+        int edgesCount = 0;
+        for (int tile = 0; tile < tiles; tile++) {
+            if (tile % tileColumns != tileColumns - 1)
+                edges[edgesCount++] = tile * 2;
+            if (tile / tileColumns != tileRows - 1)
+                edges[edgesCount++] = tile * 2 + 1;
+        }
+
+        for (int i = edgesCount - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int edge = edges[i];
+            edges[i] = edges[j];
+            edges[j] = edge;
+        }
+
+        int[] tileParents = new int[tiles];
+        for (int i = 0; i < tiles; i++) {
+            tileParents[i] = i;
+        }
+
+        for (int i = 0; i < edgesCount; i++) {
+            int tile = edges[i] / 2;
+            boolean isRightEdge = edges[i] % 2 == 0;
+            int neighbour = isRightEdge ? tile + 1 : tile + tileColumns;
+
+            int tileRoot = findTile(tileParents, tile);
+            int neighbourRoot = findTile(tileParents, neighbour);
+            if (tileRoot == neighbourRoot)
+                continue;
+            tileParents[neighbourRoot] = tileRoot;
+
+            int firstAreaRow = tile / tileColumns * TILE_AREA_ROWS;
+            int firstAreaColumn = tile % tileColumns * TILE_AREA_COLUMNS;
+            if (isRightEdge) {
+                int areaRows = Math.min(TILE_AREA_ROWS, blockAreaRows - firstAreaRow);
+                int areaRow = firstAreaRow + rand.nextInt(areaRows);
+                maze.setBlockAt(areaRow * 2, (firstAreaColumn + TILE_AREA_COLUMNS) * 2 - 1, MazeBlock.EMPTY);
+            } else {
+                int areaColumns = Math.min(TILE_AREA_COLUMNS, blockAreaColumns - firstAreaColumn);
+                int areaColumn = firstAreaColumn + rand.nextInt(areaColumns);
+                maze.setBlockAt((firstAreaRow + TILE_AREA_ROWS) * 2 - 1, areaColumn * 2, MazeBlock.EMPTY);
+            }
+        }
+    }
+
+    private int findTile(int[] tileParents, int tile) {
+        while (tileParents[tile] != tile) {
+            tileParents[tile] = tileParents[tileParents[tile]];//path halving
+            tile = tileParents[tile];
+        }
+
+        return tile;
+    }
+
+    private static class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BitPackedMaze maze;
+        private final int blockAreaRows;
+        private final int blockAreaColumns;
+        private final int tileColumns;
+        private final int wallPercentage;
+        private final SplittableRandom[] tileRands;
+        private final int from;
+        private final int to;
+
+        private TileTask(BitPackedMaze maze, int blockAreaRows, int blockAreaColumns, int tileColumns,
+                         int wallPercentage, SplittableRandom[] tileRands, int from, int to) {
+            this.maze = maze;
+            this.blockAreaRows = blockAreaRows;
+            this.blockAreaColumns = blockAreaColumns;
+            this.tileColumns = tileColumns;
+            this.wallPercentage = wallPercentage;
+            this.tileRands = tileRands;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILES_PER_TASK) {
+                for (int tile = from; tile < to; tile++) {
+                    generateTile(tile);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(maze, blockAreaRows, blockAreaColumns, tileColumns, wallPercentage,
+                                tileRands, from, middle),
+                        new TileTask(maze, blockAreaRows, blockAreaColumns, tileColumns, wallPercentage,
+                                tileRands, middle, to));
+            }
+        }
+
+        private void generateTile(int tile) {
+            final int firstAreaRow = tile / tileColumns * TILE_AREA_ROWS;
+            final int word = tile % tileColumns;
+            int areaRows = Math.min(TILE_AREA_ROWS, blockAreaRows - firstAreaRow);
+            int areaColumns = Math.min(TILE_AREA_COLUMNS, blockAreaColumns - word * TILE_AREA_COLUMNS);
+
+            Random rand = new Random(tileRands[tile].nextLong());
+            new EllerRowGenerator(areaColumns, wallPercentage, rand).generate(areaRows, new MazeRowSink() {
+                @Override
+                public void acceptRow(long rowIndex, long[] walls) {
+                    //the seam column and the padding bits come out as walls
+                    maze.walls[(firstAreaRow * 2 + (int) rowIndex) * maze.wordsPerRow + word] = walls[0];
+                }
+            });
+
+            int seamRow = (firstAreaRow + areaRows) * 2 - 1;
+            if (seamRow < maze.getHeight())
+                maze.walls[seamRow * maze.wordsPerRow + word] = -1L;
+        }
+    }
+}
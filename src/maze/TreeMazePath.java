@@ -0,0 +1,57 @@
+package maze;
+
+import java.util.List;
+
+/**
+ * Path finder for perfect mazes that answers from the shared {@link TreePathIndex}
+ * of the maze instead of searching. The index is built by the first query on a maze.
+ */
+public class TreeMazePath implements MazePath {
+    private final boolean isPathExists;
+    private final CompactPath path;
+    private final int expandedNodeCount;
+
+    public TreeMazePath(Maze maze, int startX, int startY, int finishX, int finishY) {
+        TreePathIndex index = TreePathIndex.forMaze(maze);
+        final int width = maze.getWidth();
+
+        int length = index.getPathLength(startX, startY, finishX, finishY);
+        isPathExists = length >= 0;
+
+        if (isPathExists) {
+            final int[] cells = new int[length + 1];
+            expandedNodeCount = index.walkPath(startX, startY, finishX, finishY, new MazeCellVisitor() {
+                private int position = 0;
+
+                @Override
+                public void visitCell(int indexX, int indexY) {
+                    cells[position++] = indexX * width + indexY;
+                }
+            });
+            path = new CompactPath(width, cells);
+        } else {
+            path = CompactPath.empty(width);
+            expandedNodeCount = 0;
+        }
+    }
+
+    @Override
+    public boolean isExist() {
+        return isPathExists;
+    }
+
+    @Override
+    public CompactPath getPath() {
+        return path;
+    }
+
+    @Override
+    public List<Point> getPathList() {
+        return path.asList();
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+}
@@ -0,0 +1,193 @@
+package maze;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Index for path queries on a perfect maze, whose passage graph is a tree.
+ * The tree is rooted at the first empty cell. For every cell the index keeps its
+ * parent, its depth and one jump pointer to an ancestor (skew-binary jump
+ * pointers, a binary lifting scheme with a single pointer per cell). Any
+ * ancestor and the lowest common ancestor of two cells are then found in
+ * O(log n) hops, so the path length between two cells costs O(log n) and the
+ * path itself costs O(log n + length).
+ * <p>
+ * Queries do not change the index, so threads may query it at the same time.
+ * The index assumes the maze is not changed after it has been built.
+ */
+public class TreePathIndex {
+    private static final Map<Maze, TreePathIndex> INDEXES = new WeakHashMap<Maze, TreePathIndex>();
+
+    private final int width;
+    private final int[] parents;
+    private final int[] depths;
+    private final int[] jumps;
+
+    /**
+     * Builds the index in O(cells).
+     *
+     * @throws IllegalArgumentException if the maze is not perfect
+     */
+    public TreePathIndex(Maze maze) {
+        if (!MazeValidator.isPerfect(maze))
+            throw new IllegalArgumentException("Maze is not perfect");
+
+        width = maze.getWidth();
+        int height = maze.getHeight();
+        int cells = SearchScratch.getCellCount(maze);
+        parents = new int[cells];
+        depths = new int[cells];
+        jumps = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            parents[i] = -1;
+        }
+
+        Point root = maze.getFirstEmptyPoint();
+        if (root == null)
+            return;
+
+        int[] queue = new int[cells];
+        int rootCell = root.x * width + root.y;
+        parents[rootCell] = rootCell;
+        jumps[rootCell] = rootCell;
+        queue[0] = rootCell;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / width;
+            int y = cell - x * width;
+
+            if (x > 0 && maze.getBlockAt(x - 1, y) == MazeBlock.EMPTY && parents[cell - width] == -1) {
+                attach(cell - width, cell);
+                queue[tail++] = cell - width;
+            }
+            if (x < height - 1 && maze.getBlockAt(x + 1, y) == MazeBlock.EMPTY && parents[cell + width] == -1) {
+                attach(cell + width, cell);
+                queue[tail++] = cell + width;
+            }
+            if (y > 0 && maze.getBlockAt(x, y - 1) == MazeBlock.EMPTY && parents[cell - 1] == -1) {
+                attach(cell - 1, cell);
+                queue[tail++] = cell - 1;
+            }
+            if (y < width - 1 && maze.getBlockAt(x, y + 1) == MazeBlock.EMPTY && parents[cell + 1] == -1) {
+                attach(cell + 1, cell);
+                queue[tail++] = cell + 1;
+            }
+        }
+    }
+
+    /**
+     * @return index of the given maze, built on the first request and kept while the maze is reachable
+     */
+    public static TreePathIndex forMaze(Maze maze) {
+        synchronized (INDEXES) {
+            TreePathIndex index = INDEXES.get(maze);
+            if (index == null) {
+                index = new TreePathIndex(maze);
+                INDEXES.put(maze, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * @return number of steps between the two cells or -1 if one of them is a wall
+     */
+    public int getPathLength(int startX, int startY, int finishX, int finishY) {
+        int start = startX * width + startY;
+        int finish = finishX * width + finishY;
+        if (parents[start] == -1 || parents[finish] == -1)
+            return -1;
+
+        int ancestor = findCommonAncestor(start, finish).cell;
+        return depths[start] + depths[finish] - 2 * depths[ancestor];
+    }
+
+    /**
+     * Passes every cell of the path to the visitor, from the start to the finish inclusive.
+     *
+     * @return number of parent and jump hops made to find the common ancestor,
+     * or -1 if one of the cells is a wall and there is no path
+     */
+    public int walkPath(int startX, int startY, int finishX, int finishY, MazeCellVisitor visitor) {
+        int start = startX * width + startY;
+        int finish = finishX * width + finishY;
+        if (parents[start] == -1 || parents[finish] == -1)
+            return -1;
+
+        CommonAncestor commonAncestor = findCommonAncestor(start, finish);
+        int ancestor = commonAncestor.cell;
+
+        for (int cell = start; cell != ancestor; cell = parents[cell])
+            visitor.visitCell(cell / width, cell % width);
+        visitor.visitCell(ancestor / width, ancestor % width);
+
+        int[] finishBranch = new int[depths[finish] - depths[ancestor]];
+        int i = finishBranch.length;
+        for (int cell = finish; cell != ancestor; cell = parents[cell])
+            finishBranch[--i] = cell;
+        for (int cell : finishBranch)
+            visitor.visitCell(cell / width, cell % width);
+
+        return commonAncestor.hops;
+    }
+
+    private void attach(int cell, int parent) {
+        parents[cell] = parent;
+        depths[cell] = depths[parent] + 1;
+
+        int jump = jumps[parent];
+        if (depths[parent] - depths[jump] == depths[jump] - depths[jumps[jump]])
+            jumps[cell] = jumps[jump];
+        else
+            jumps[cell] = parent;
+    }
+
+    /**
+     * Lowest common ancestor found by a query and the number of hops it took.
+     */
+    private static final class CommonAncestor {
+        private final int cell;
+        private final int hops;
+
+        private CommonAncestor(int cell, int hops) {
+            this.cell = cell;
+            this.hops = hops;
+        }
+    }
+
+    private CommonAncestor findCommonAncestor(int first, int second) {
+        int hops = 0;
+        if (depths[first] < depths[second]) {
+            int cell = first;
+            first = second;
+            second = cell;
+        }
+
+        int depth = depths[second];
+        while (depths[first] > depth) {
+            if (depths[jumps[first]] >= depth)
+                first = jumps[first];
+            else
+                first = parents[first];
+            ++hops;
+        }
+
+        //cells of equal depth have jump pointers of equal depth
+        while (first != second) {
+            if (jumps[first] != jumps[second]) {
+                first = jumps[first];
+                second = jumps[second];
+            } else {
+                first = parents[first];
+                second = parents[second];
+            }
+            ++hops;
+        }
+
+        return new CommonAncestor(first, hops);
+    }
+}
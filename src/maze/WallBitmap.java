@@ -0,0 +1,14 @@
+package maze;
+
+/**
+ * Read access to a wall bitmap with the layout of {@link BitPackedMaze}: row x
+ * takes the words [x * wordsPerRow, (x + 1) * wordsPerRow), a set bit is a wall
+ * and the padding bits after the last column of a row are set.
+ */
+interface WallBitmap {
+    int getWordsPerRow();
+
+    long getWordCount();
+
+    long getWord(long index);
+}
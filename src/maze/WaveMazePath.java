@@ -1,6 +1,5 @@
 package maze;
 
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -8,7 +7,8 @@ import java.util.List;
  */
 public class WaveMazePath implements MazePath {
     private final boolean isPathExists;
-    private List<Point> pathList = new LinkedList<Point>();
+    private CompactPath path;
+    private int expandedNodeCount = 0;
 
     public WaveMazePath(Maze maze, int startX, int startY, int finishX, int finishY) {
         isPathExists = generate(maze, startX, startY, finishX, finishY);
@@ -19,13 +19,25 @@ public class WaveMazePath implements MazePath {
         return isPathExists;
     }
 
+    @Override
+    public CompactPath getPath() {
+        return path;
+    }
+
     public List<Point> getPathList() {
-        return pathList;
+        return path.asList();
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
     }
 
     private boolean generate(Maze maze, int startX, int startY, int finishX, int finishY) {
+        SearchScratch.getCellCount(maze);//the path numbers its cells with ints
         int width = maze.getWidth();
         int height = maze.getHeight();
+        path = CompactPath.empty(width);
 
         int[][] lengthMap = new int[height][width];
         //-1 - not visited
@@ -45,27 +57,31 @@ public class WaveMazePath implements MazePath {
                 isPossibleToContinue(lengthMap)) {
             for (int i = 0; i < height; i++) {
                 for (int j = 0; j < width; j++) {
-                    if (lengthMap[i][j] == currLength)
+                    if (lengthMap[i][j] == currLength) {
                         addNewWavePart(lengthMap, i, j);
+                        ++expandedNodeCount;
+                    }
                 }
             }
             ++currLength;
         }
 
-        if (lengthMap[finishX][finishY] != -1) {
+        if (lengthMap[finishX][finishY] >= 0) {
             int currX = finishX;
             int currY = finishY;
 
-            pathList.add(new Point(currX, currY));
+            int[] cells = new int[lengthMap[finishX][finishY] + 1];
+            cells[cells.length - 1] = currX * width + currY;
 
-            while (currX != startX || currY != startY) {
+            for (int i = cells.length - 2; i >= 0; i--) {
                 Point prevPoint = findLessClosestPoint(lengthMap, currX, currY);
-                pathList.add(0, prevPoint);
+                cells[i] = prevPoint.x * width + prevPoint.y;
 
                 currX = prevPoint.x;
                 currY = prevPoint.y;
             }
 
+            path = new CompactPath(width, cells);
             return true;
         }
         return false;
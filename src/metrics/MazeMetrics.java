@@ -0,0 +1,108 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide metrics of maze generation, validation and solving. Recording
+ * allocates nothing and only touches atomic counters, so it is always on. The
+ * same values can be read here or through JMX after {@link #registerMBean()}.
+ * <p>
+ * There is no generation retry count: the generators always build a perfect
+ * maze on the first attempt and nothing regenerates a maze any more.
+ */
+public final class MazeMetrics {
+    public static final String OBJECT_NAME = "maze:type=MazeMetrics";
+
+    private static final LatencyHistogram generation = new LatencyHistogram();
+    private static final LatencyHistogram validation = new LatencyHistogram();
+    private static final LatencyHistogram solve = new LatencyHistogram();
+    private static final AtomicLong cyclesRemoved = new AtomicLong();
+    private static final AtomicLong nodesExpanded = new AtomicLong();
+    private static final AtomicLong scratchBytes = new AtomicLong();
+    private static final AtomicLong peakScratchBytes = new AtomicLong();
+
+    private MazeMetrics() {}
+
+    public static void recordGeneration(long nanos) {
+        generation.record(nanos);
+    }
+
+    public static void recordValidation(long nanos) {
+        validation.record(nanos);
+    }
+
+    public static void recordSolve(long nanos, int expandedNodes) {
+        solve.record(nanos);
+        nodesExpanded.addAndGet(expandedNodes);
+    }
+
+    public static void recordCyclesRemoved(int cycles) {
+        cyclesRemoved.addAndGet(cycles);
+    }
+
+    /**
+     * Accounts for a change of the memory held by the search buffers of all threads.
+     */
+    public static void recordScratchAllocation(long deltaBytes) {
+        long bytes = scratchBytes.addAndGet(deltaBytes);
+
+        long peak = peakScratchBytes.get();
+        while (bytes > peak && !peakScratchBytes.compareAndSet(peak, bytes)) {
+            peak = peakScratchBytes.get();
+        }
+    }
+
+    public static LatencyHistogram getGenerationHistogram() {
+        return generation;
+    }
+
+    public static LatencyHistogram getValidationHistogram() {
+        return validation;
+    }
+
+    public static LatencyHistogram getSolveHistogram() {
+        return solve;
+    }
+
+    public static long getCyclesRemoved() {
+        return cyclesRemoved.get();
+    }
+
+    public static long getNodesExpanded() {
+        return nodesExpanded.get();
+    }
+
+    public static long getPeakScratchBytes() {
+        return peakScratchBytes.get();
+    }
+
+    /**
+     * Clears everything but the memory held by the search buffers, the peak
+     * starts again from it.
+     */
+    public static void reset() {
+        generation.reset();
+        validation.reset();
+        solve.reset();
+        cyclesRemoved.set(0);
+        nodesExpanded.set(0);
+        peakScratchBytes.set(scratchBytes.get());
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server under {@value #OBJECT_NAME},
+     * does nothing if they are registered already.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MazeMetricsBean(), name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package metrics;
+
+class MazeMetricsBean implements MazeMetricsMXBean {
+    private static final long NANOS_PER_MICRO = 1000;
+
+    @Override
+    public long getGenerationCount() {
+        return MazeMetrics.getGenerationHistogram().getCount();
+    }
+
+    @Override
+    public long getGenerationMeanMicros() {
+        return MazeMetrics.getGenerationHistogram().getMeanNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getGenerationP99Micros() {
+        return MazeMetrics.getGenerationHistogram().getPercentileNanos(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getGenerationMaxMicros() {
+        return MazeMetrics.getGenerationHistogram().getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getValidationCount() {
+        return MazeMetrics.getValidationHistogram().getCount();
+    }
+
+    @Override
+    public long getValidationMeanMicros() {
+        return MazeMetrics.getValidationHistogram().getMeanNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getValidationP99Micros() {
+        return MazeMetrics.getValidationHistogram().getPercentileNanos(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getValidationMaxMicros() {
+        return MazeMetrics.getValidationHistogram().getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getSolveCount() {
+        return MazeMetrics.getSolveHistogram().getCount();
+    }
+
+    @Override
+    public long getSolveMeanMicros() {
+        return MazeMetrics.getSolveHistogram().getMeanNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getSolveP99Micros() {
+        return MazeMetrics.getSolveHistogram().getPercentileNanos(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getSolveMaxMicros() {
+        return MazeMetrics.getSolveHistogram().getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getCyclesRemoved() {
+        return MazeMetrics.getCyclesRemoved();
+    }
+
+    @Override
+    public long getNodesExpanded() {
+        return MazeMetrics.getNodesExpanded();
+    }
+
+    @Override
+    public long getPeakScratchBytes() {
+        return MazeMetrics.getPeakScratchBytes();
+    }
+
+    @Override
+    public void reset() {
+        MazeMetrics.reset();
+    }
+}
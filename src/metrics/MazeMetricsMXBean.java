@@ -0,0 +1,39 @@
+package metrics;
+
+/**
+ * JMX view of {@link MazeMetrics}. Latencies are in microseconds, percentiles
+ * are upper bounds of power of two buckets.
+ */
+public interface MazeMetricsMXBean {
+    long getGenerationCount();
+
+    long getGenerationMeanMicros();
+
+    long getGenerationP99Micros();
+
+    long getGenerationMaxMicros();
+
+    long getValidationCount();
+
+    long getValidationMeanMicros();
+
+    long getValidationP99Micros();
+
+    long getValidationMaxMicros();
+
+    long getSolveCount();
+
+    long getSolveMeanMicros();
+
+    long getSolveP99Micros();
+
+    long getSolveMaxMicros();
+
+    long getCyclesRemoved();
+
+    long getNodesExpanded();
+
+    long getPeakScratchBytes();
+
+    void reset();
+}
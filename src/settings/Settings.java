@@ -40,8 +40,8 @@ public class Settings {
         return COLUMNS;
     }
 
-    public static String getMazeImplementationClassName() {
-        return instance.props.getProperty("maze.maze_implementation_class_name");
+    public static String getMazeGeneratorName() {
+        return instance.props.getProperty("maze.maze_generator_name");
     }
 
     public static String getMazePathImplementationClassName() {
@@ -52,6 +52,10 @@ public class Settings {
         return Integer.parseInt(instance.props.getProperty("maze.wall_percentage"));
     }
 
+    public static long getMazeCacheMaxCells() {
+        return Long.parseLong(instance.props.getProperty("maze.cache_max_cells"));
+    }
+
     public static String getMainFrameTitle() {
         return instance.props.getProperty("main_frame.title");
     }
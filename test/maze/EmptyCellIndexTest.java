@@ -0,0 +1,196 @@
+package maze;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class EmptyCellIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void selectInWordMatchesScan() {
+        long[] words = {-1L, 1L, Long.MIN_VALUE, 0x8000000000000001L, 0xFF00000000000000L, 0x00000000FFFFFFFFL,
+                0xAAAAAAAAAAAAAAAAL, 0x5555555555555555L, 0x8080808080808080L, 0x0101010101010101L};
+        for (long word : words) {
+            assertSelectsInWord(word);
+        }
+
+        Random rand = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            long word = rand.nextLong();
+            if (rand.nextBoolean())
+                word &= rand.nextLong() & rand.nextLong();
+            if (rand.nextBoolean())
+                word |= Long.MIN_VALUE;
+
+            assertSelectsInWord(word);
+        }
+    }
+
+    private static void assertSelectsInWord(long word) {
+        long rest = word;
+        for (int rank = 0; rest != 0; rank++, rest &= rest - 1) {
+            assertEquals("rank " + rank + " of " + Long.toHexString(word),
+                    Long.numberOfTrailingZeros(rest), EmptyCellIndex.selectInWord(word, rank));
+        }
+    }
+
+    @Test
+    public void generatedMazesMatchScan() {
+        int[] sizes = {3, 63, 64, 65, 66, 127, 128, 129, 130, 301};
+        for (int rows : sizes) {
+            for (int columns : sizes) {
+                assertMatchesScan(new EllerMaze(rows, columns, 40, new Random(rows * 1000 + columns)));
+            }
+        }
+    }
+
+    @Test
+    public void sparseAndDenseRangesMatchScan() {
+        Random rand = new Random(2);
+        BitPackedMaze maze = new BitPackedMaze(3000, 1000);
+        for (int i = 0; i < maze.getHeight(); i++) {
+            int sparseColumn = rand.nextInt(maze.getWidth());
+            for (int j = 0; j < maze.getWidth(); j++) {
+                boolean isWall = i < 1500 ? j != sparseColumn : rand.nextInt(3) == 0;
+                maze.setBlockAt(i, j, isWall ? MazeBlock.WALL : MazeBlock.EMPTY);
+            }
+        }
+
+        assertMatchesScan(maze);
+    }
+
+    @Test
+    public void cellsAtRowEdgesMatchScan() {
+        BitPackedMaze maze = new BitPackedMaze(40, 65);
+        for (int i = 0; i < maze.getHeight(); i++) {
+            for (int j = 1; j < maze.getWidth() - 1; j++) {
+                maze.setBlockAt(i, j, MazeBlock.WALL);
+            }
+        }
+
+        assertMatchesScan(maze);
+    }
+
+    @Test
+    public void mazeWithoutEmptyCells() {
+        BitPackedMaze maze = new BitPackedMaze(10, 70);
+        for (int i = 0; i < maze.getHeight(); i++) {
+            for (int j = 0; j < maze.getWidth(); j++) {
+                maze.setBlockAt(i, j, MazeBlock.WALL);
+            }
+        }
+
+        EmptyCellIndex index = EmptyCellIndex.forMaze(maze);
+        assertEquals(0, index.getEmptyCellCount());
+        assertNull(index.getRandomEmptyPoint(new Random(3)));
+        assertNull(maze.getFirstEmptyPoint());
+        assertNull(maze.getLastEmptyPoint());
+        assertMatchesScan(new BitPackedMaze(0, 5));
+        assertMatchesScan(new BitPackedMaze(5, 0));
+    }
+
+    @Test
+    public void lookupsAfterEditsMatchScan() {
+        BitPackedMaze maze = new EllerMaze(201, 201, 40, new Random(4));
+        assertSame(maze.getEmptyCellIndex(), EmptyCellIndex.forMaze(maze));
+
+        Random rand = new Random(5);
+        for (int i = 0; i < 50; i++) {
+            maze.setBlockAt(rand.nextInt(maze.getHeight()), rand.nextInt(maze.getWidth()),
+                    rand.nextBoolean() ? MazeBlock.WALL : MazeBlock.EMPTY);
+            assertLookupsMatchScan(maze, scanEmptyCells(maze));
+        }
+
+        assertMatchesScan(maze);
+    }
+
+    @Test
+    public void fileMappedMazeMatchesScan() throws Exception {
+        Random rand = new Random(6);
+        FileMappedMaze maze = FileMappedMaze.create(folder.newFile(), 700, 333, 12);
+        for (int i = 0; i < maze.getHeight(); i++) {
+            for (int j = 0; j < maze.getWidth(); j++) {
+                boolean isWall = rand.nextInt(i < 350 ? 900 : 3) != 0;
+                maze.setBlockAt(i, j, isWall ? MazeBlock.WALL : MazeBlock.EMPTY);
+            }
+        }
+
+        assertLookupsMatchScan(maze, scanEmptyCells(maze));
+        assertMatchesScan(maze);
+    }
+
+    @Test
+    public void randomEmptyPointsAreEmpty() {
+        Maze maze = new EllerMaze(101, 101, 40, new Random(7));
+        EmptyCellIndex index = EmptyCellIndex.forMaze(maze);
+        Random rand = new Random(8);
+        for (int i = 0; i < 10000; i++) {
+            Point point = index.getRandomEmptyPoint(rand);
+            assertEquals(MazeBlock.EMPTY, maze.getBlockAt(point.x, point.y));
+        }
+    }
+
+    private static List<Point> scanEmptyCells(Maze maze) {
+        List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i < maze.getHeight(); i++) {
+            for (int j = 0; j < maze.getWidth(); j++) {
+                if (maze.getBlockAt(i, j) == MazeBlock.EMPTY)
+                    points.add(new Point(i, j));
+            }
+        }
+
+        return points;
+    }
+
+    private static void assertMatchesScan(Maze maze) {
+        List<Point> points = scanEmptyCells(maze);
+        EmptyCellIndex index = EmptyCellIndex.forMaze(maze);
+        assertEquals(points.size(), index.getEmptyCellCount());
+
+        int k = 0;
+        for (int i = 0; i < maze.getHeight(); i++) {
+            for (int j = 0; j < maze.getWidth(); j++) {
+                assertEquals("rank of " + i + ", " + j, k, index.getRank(i, j));
+                if (maze.getBlockAt(i, j) == MazeBlock.EMPTY)
+                    k++;
+            }
+        }
+
+        for (k = 0; k < points.size(); k++) {
+            assertPoint(points.get(k), index.getEmptyPoint(k));
+        }
+
+        assertLookupsMatchScan(maze, points);
+    }
+
+    private static void assertLookupsMatchScan(Maze maze, List<Point> points) {
+        Point point = maze.getFirstEmptyPoint();
+        for (Point expected : points) {
+            assertPoint(expected, point);
+            point = maze.getNextEmptyPoint(point);
+        }
+        assertNull(point);
+
+        point = maze.getLastEmptyPoint();
+        for (int k = points.size() - 1; k >= 0; k--) {
+            assertPoint(points.get(k), point);
+            point = maze.getPreviousEmptyPoint(point);
+        }
+        assertNull(point);
+    }
+
+    private static void assertPoint(Point expected, Point actual) {
+        assertEquals(expected.x + ", " + expected.y, expected.x, actual.x);
+        assertEquals(expected.x + ", " + expected.y, expected.y, actual.y);
+    }
+}
@@ -0,0 +1,69 @@
+package maze;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MazeValidatorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rowScanMatchesFloodFill() {
+        Random rand = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            int rows = 1 + rand.nextInt(40);
+            int columns = 1 + rand.nextInt(40);
+
+            BitPackedMaze maze = new EllerMaze(rows + 2, columns + 2, rand.nextInt(101), new Random(i));
+            assertRowScanMatchesFloodFill(maze);
+            for (int edit = rand.nextInt(3); edit > 0; edit--) {
+                maze.setBlockAt(rand.nextInt(maze.getHeight()), rand.nextInt(maze.getWidth()),
+                        rand.nextBoolean() ? MazeBlock.WALL : MazeBlock.EMPTY);
+            }
+            assertRowScanMatchesFloodFill(maze);
+
+            BitPackedMaze grid = new BitPackedMaze(rows, columns);
+            int wallPercentage = rand.nextInt(100);
+            for (int x = 0; x < rows; x++) {
+                for (int y = 0; y < columns; y++) {
+                    if (rand.nextInt(100) < wallPercentage)
+                        grid.setBlockAt(x, y, MazeBlock.WALL);
+                }
+            }
+            assertRowScanMatchesFloodFill(grid);
+        }
+    }
+
+    @Test
+    public void rowScanOfEmptyMazes() {
+        assertTrue(MazeValidator.isPerfectByRows(new BitPackedMaze(0, 4)));
+        assertTrue(MazeValidator.isPerfectByRows(new BitPackedMaze(1, 1)));
+        assertFalse(MazeValidator.isPerfectByRows(new BitPackedMaze(2, 2)));
+    }
+
+    @Test
+    public void fileMappedMazeFromRowGeneratorIsCorrect() throws Exception {
+        FileMappedMaze maze = FileMappedMaze.create(folder.newFile(), 2001, 259, 12);
+        new EllerRowGenerator(130, 40, new Random(2)).generate(1001, maze);
+        assertTrue(maze.isCorrect());
+
+        maze.setBlockAt(0, 1, maze.getBlockAt(0, 1) == MazeBlock.WALL ? MazeBlock.EMPTY : MazeBlock.WALL);
+        assertFalse(maze.isCorrect());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void floodFillRejectsTooManyCells() throws Exception {
+        MazeValidator.isPerfect(FileMappedMaze.create(folder.newFile(), 65537, 32768));
+    }
+
+    private static void assertRowScanMatchesFloodFill(Maze maze) {
+        assertEquals(maze.toString(), MazeValidator.isPerfect(maze), MazeValidator.isPerfectByRows(maze));
+    }
+}